@@ -0,0 +1,49 @@
+package by.ilyushenko.farm.benchmark;
+
+import by.ilyushenko.farm.analytics.AnalyticsGroupBy;
+import by.ilyushenko.farm.analytics.ProduceAnalyticsService;
+import by.ilyushenko.farm.dto.WeightGroupDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-by aggregates over the in-memory produce columns. The columns are reloaded
+ * after seeding, since the benchmark data is inserted without service events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AnalyticsBenchmark {
+
+    private ProduceAnalyticsService analyticsService;
+
+    @Setup(Level.Trial)
+    public void load(BenchmarkContext ctx) {
+        analyticsService = ctx.context.getBean(ProduceAnalyticsService.class);
+        analyticsService.rebuild();
+    }
+
+    @Benchmark
+    public List<WeightGroupDTO> weightByColor() {
+        return analyticsService.getWeightStats(AnalyticsGroupBy.COLOR, null, null);
+    }
+
+    @Benchmark
+    public List<WeightGroupDTO> weightByFarm() {
+        return analyticsService.getWeightStats(AnalyticsGroupBy.FARM, null, null);
+    }
+
+    @Benchmark
+    public List<WeightGroupDTO> weightByNameForFarm(BenchmarkContext ctx) {
+        return analyticsService.getWeightStats(AnalyticsGroupBy.NAME, null, ctx.randomFarmId());
+    }
+}
@@ -0,0 +1,179 @@
+package by.ilyushenko.farm.benchmark;
+
+import by.ilyushenko.farm.FarmApplication;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.dto.ProduceRowDTO;
+import by.ilyushenko.farm.entity.Farm;
+import by.ilyushenko.farm.repository.FruitRepository;
+import by.ilyushenko.farm.service.FarmServiceInterface;
+import by.ilyushenko.farm.service.FruitServiceInterface;
+import by.ilyushenko.farm.service.VegetableServiceInterface;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application against a private H2 database ({@code storage}: in-memory,
+ * or file-backed with the prod profile), optionally with an extra {@code profile}, and
+ * seeds {@code farms x producePerFarm} fruits and vegetables. No web server is started
+ * unless a subclass overrides {@link #webApplicationType()}; it then listens on a random port.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    private static final String[] NAMES = {"Apple", "Banana", "Cherry", "Grape", "Orange", "Pear", "Plum", "Carrot", "Potato", "Tomato"};
+    private static final String[] COLORS = {"Red", "Yellow", "Green", "Orange", "Purple", "Brown"};
+    private static final int SEED_CHUNK = 10_000;
+
+    @Param({"100"})
+    public int farms;
+
+    @Param({"100"})
+    public int producePerFarm;
+
+    @Param({"mem"})
+    public String storage;
+
+    // Extra Spring profile on top of the storage setup, e.g. "throughput"; "default" adds none
+    @Param({"default"})
+    public String profile;
+
+    public ConfigurableApplicationContext context;
+    public FarmServiceInterface farmService;
+    public FruitServiceInterface fruitService;
+    public VegetableServiceInterface vegetableService;
+
+    public long[] farmIds;
+    public long[] fruitIds;
+
+    private Path dataDir;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        dataDir = Files.createTempDirectory("farm-bench");
+        context = boot(storage, profile, dataDir, webApplicationType());
+        farmService = context.getBean(FarmServiceInterface.class);
+        fruitService = context.getBean(FruitServiceInterface.class);
+        vegetableService = context.getBean(VegetableServiceInterface.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+        deleteRecursively(dataDir);
+    }
+
+    // Subclasses serving HTTP override this to start the embedded server
+    protected WebApplicationType webApplicationType() {
+        return WebApplicationType.NONE;
+    }
+
+    static ConfigurableApplicationContext boot(String storage, String profile, Path dataDir) {
+        return boot(storage, profile, dataDir, WebApplicationType.NONE);
+    }
+
+    static ConfigurableApplicationContext boot(String storage, String profile, Path dataDir,
+                                               WebApplicationType webApplicationType) {
+        SpringApplication application = new SpringApplication(FarmApplication.class);
+        application.setWebApplicationType(webApplicationType);
+        List<String> profiles = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        if (webApplicationType != WebApplicationType.NONE) {
+            args.add("--server.port=0");
+        }
+        switch (storage) {
+            // farm.h2.url-options lets profiles such as throughput add H2 settings to the private URL
+            case "mem" -> args.add("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                    + ";DB_CLOSE_DELAY=-1${farm.h2.url-options:}");
+            case "file" -> profiles.add("prod");
+            default -> throw new IllegalArgumentException("storage must be 'mem' or 'file'");
+        }
+        if (!"default".equals(profile)) {
+            profiles.add(profile);
+        }
+        if (!profiles.isEmpty()) {
+            args.add("--spring.profiles.active=" + String.join(",", profiles));
+        }
+        args.add("--farm.db.path=" + dataDir.resolve("farm"));
+        args.add("--farm.seed.enabled=false");
+        args.add("--logging.level.root=WARN");
+        return application.run(args.toArray(String[]::new));
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public long randomFarmId() {
+        return farmIds[ThreadLocalRandom.current().nextInt(farmIds.length)];
+    }
+
+    public long randomFruitId() {
+        return fruitIds[ThreadLocalRandom.current().nextInt(fruitIds.length)];
+    }
+
+    public static String randomName() {
+        return NAMES[ThreadLocalRandom.current().nextInt(NAMES.length)];
+    }
+
+    public static String randomColor() {
+        return COLORS[ThreadLocalRandom.current().nextInt(COLORS.length)];
+    }
+
+    private void seed() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < farms; i++) {
+            ids.add(farmService.createFarm(new Farm("Bench Farm " + i, "Region " + (i % 50))).getId());
+        }
+        List<ProduceBatchItem> fruits = new ArrayList<>();
+        List<ProduceBatchItem> vegetables = new ArrayList<>();
+        for (Long farmId : ids) {
+            for (int j = 0; j < producePerFarm; j++) {
+                fruits.add(randomItem(farmId));
+                vegetables.add(randomItem(farmId));
+                if (fruits.size() == SEED_CHUNK) {
+                    fruitService.createFruits(fruits);
+                    vegetableService.createVegetables(vegetables);
+                    fruits.clear();
+                    vegetables.clear();
+                }
+            }
+        }
+        if (!fruits.isEmpty()) {
+            fruitService.createFruits(fruits);
+            vegetableService.createVegetables(vegetables);
+        }
+        farmIds = ids.stream().mapToLong(Long::longValue).toArray();
+        fruitIds = context.getBean(FruitRepository.class)
+                .findRowsAfter(0L, Limit.unlimited()).stream()
+                .mapToLong(ProduceRowDTO::getId)
+                .toArray();
+    }
+
+    private static ProduceBatchItem randomItem(Long farmId) {
+        double weight = 10 + ThreadLocalRandom.current().nextDouble(500);
+        return new ProduceBatchItem(randomName(), randomColor(), weight, farmId);
+    }
+}
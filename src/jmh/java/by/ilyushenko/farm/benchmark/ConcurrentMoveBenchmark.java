@@ -0,0 +1,77 @@
+package by.ilyushenko.farm.benchmark;
+
+import by.ilyushenko.farm.entity.Fruit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Many threads moving a small set of hot fruits between farms through
+ * {@code updateFruit}, to measure throughput under optimistic lock contention.
+ * The {@code moves} and {@code gaveUp} counters report committed calls and calls
+ * whose conflicts outlasted the service retries, per second. Correctness (no lost
+ * updates) is checked by {@code ConcurrentMoveTest} in the test suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class ConcurrentMoveBenchmark {
+
+    // Fewer hot fruits means more threads contending for the same rows
+    @Param({"4", "64"})
+    public int hotFruits;
+
+    private BenchmarkContext ctx;
+    private long[] ids;
+    private final AtomicLong weightSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void resolve(BenchmarkContext ctx) {
+        this.ctx = ctx;
+        ids = Arrays.copyOf(ctx.fruitIds, Math.min(hotFruits, ctx.fruitIds.length));
+    }
+
+    @Benchmark
+    public Fruit moveHotFruit(MoveOutcomes outcomes) {
+        int index = ThreadLocalRandom.current().nextInt(ids.length);
+        double weight = 1 + weightSequence.incrementAndGet() * 0.001;
+        Fruit details = new Fruit("Hot fruit", BenchmarkContext.randomColor(), weight, null);
+        try {
+            Fruit updated = ctx.fruitService.updateFruit(ids[index], details, ctx.randomFarmId(), null);
+            outcomes.moves++;
+            return updated;
+        } catch (OptimisticLockingFailureException e) {
+            outcomes.gaveUp++;
+            return null;
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class MoveOutcomes {
+
+        public long moves;
+        public long gaveUp;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            moves = 0;
+            gaveUp = 0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package by.ilyushenko.farm.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full NDJSON inventory export into a discarding stream. Besides exports per second,
+ * {@code rows} reports farms plus produce items written per second and
+ * {@code peakHeapBytes} the highest heap use seen during the iteration (sum of the
+ * per-pool peaks, so an upper bound). Compare runs with different {@code -PjmhFarms}
+ * to check that the peak follows the export chunk size rather than the dataset.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExportBenchmark {
+
+    @Benchmark
+    public void exportInventory(BenchmarkContext ctx, ExportedRows exported, HeapPeak heap) throws IOException {
+        ctx.farmService.exportInventory(OutputStream.nullOutputStream());
+        exported.rows += ctx.farms * (1 + 2L * ctx.producePerFarm);
+        heap.peakHeapBytes = Math.max(heap.peakHeapBytes, HeapPeak.current());
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class ExportedRows {
+
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class HeapPeak {
+
+        private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+
+        public long peakHeapBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakHeapBytes = 0;
+            HEAP_POOLS.forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+
+        static long current() {
+            return HEAP_POOLS.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        }
+    }
+}
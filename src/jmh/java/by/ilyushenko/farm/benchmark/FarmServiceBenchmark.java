@@ -0,0 +1,44 @@
+package by.ilyushenko.farm.benchmark;
+
+import by.ilyushenko.farm.dto.FarmInventoryView;
+import by.ilyushenko.farm.dto.FarmSortedDTO;
+import by.ilyushenko.farm.dto.FarmStatsDTO;
+import by.ilyushenko.farm.dto.FarmView;
+import by.ilyushenko.farm.entity.Farm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FarmServiceBenchmark {
+
+    @Benchmark
+    public List<FarmInventoryView> getAllFarms(BenchmarkContext ctx) {
+        return ctx.farmService.getAllFarms();
+    }
+
+    @Benchmark
+    public FarmStatsDTO getFarmStats(BenchmarkContext ctx) {
+        return ctx.farmService.getFarmStats(ctx.randomFarmId());
+    }
+
+    @Benchmark
+    public List<FarmSortedDTO> findFarmsSorted(BenchmarkContext ctx) {
+        return ctx.farmService.findFarmsSorted("fruits", "desc", 0, 50);
+    }
+
+    @Benchmark
+    public List<Farm> findFarmsByLocationLike(BenchmarkContext ctx) {
+        return ctx.farmService.findByLocation("gion 1");
+    }
+
+    @Benchmark
+    public List<FarmView> searchFarmsByName(BenchmarkContext ctx) {
+        return ctx.farmService.searchFarmsByName("farm 4", 50);
+    }
+}
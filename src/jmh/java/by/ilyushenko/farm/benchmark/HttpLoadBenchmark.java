@@ -0,0 +1,146 @@
+package by.ilyushenko.farm.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP reads against the embedded Tomcat from {@code clients} concurrent clients.
+ * Each operation is one round of {@code clients x REQUESTS_PER_CLIENT} requests sent
+ * through an asynchronous {@link HttpClient}; a semaphore keeps exactly {@code clients}
+ * requests in flight. The {@code requestsPerSecond}, {@code p50Micros}, {@code p99Micros}
+ * and {@code failed} counters describe the last round of each iteration.
+ * <p>
+ * Run once per execution mode on the same data:
+ * {@code ./gradlew jmh -PjmhIncludes=HttpLoadBenchmark -PjmhProfile=default,virtual}.
+ * With {@code default} Tomcat serves at most 200 requests at a time and queues the rest;
+ * with {@code virtual} every request gets a thread and the Hikari pool is the limit.
+ * 10k clients need as many sockets on both sides, so raise {@code ulimit -n} first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class HttpLoadBenchmark {
+
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    @Param({"1000", "5000", "10000"})
+    public int clients;
+
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private String baseUrl;
+
+    @State(Scope.Benchmark)
+    public static class Server extends BenchmarkContext {
+
+        @Override
+        protected WebApplicationType webApplicationType() {
+            return WebApplicationType.SERVLET;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void connect(Server server) {
+        // Клиент не должен сам стать узким местом: ответы обрабатываются виртуальными потоками
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        int port = server.context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        baseUrl = "http://localhost:" + port;
+    }
+
+    @TearDown(Level.Trial)
+    public void disconnect() {
+        client.close();
+        clientExecutor.close();
+    }
+
+    @Benchmark
+    public void readRound(Server server, LoadStats stats) throws InterruptedException {
+        int total = clients * REQUESTS_PER_CLIENT;
+        long[] latencies = new long[total];
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(clients);
+        CountDownLatch done = new CountDownLatch(total);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            int slot = i;
+            // Поровну одиночных чтений и списков фруктов фермы
+            String path = i % 2 == 0
+                    ? "/api/fruits/" + server.randomFruitId()
+                    : "/api/fruits/farm/" + server.randomFarmId();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[slot] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        stats.requestsPerSecond = total * 1_000_000_000L / Math.max(1, elapsed);
+        stats.p50Micros = latencies[total / 2] / 1_000;
+        stats.p99Micros = latencies[(int) Math.ceil(total * 0.99) - 1] / 1_000;
+        stats.failed = failed.get();
+    }
+
+    // Values are assigned, not accumulated: each field holds the figure of the last round
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class LoadStats {
+
+        public long requestsPerSecond;
+        public long p50Micros;
+        public long p99Micros;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requestsPerSecond = 0;
+            p50Micros = 0;
+            p99Micros = 0;
+            failed = 0;
+        }
+    }
+}
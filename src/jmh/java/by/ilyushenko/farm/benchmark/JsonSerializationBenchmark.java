@@ -0,0 +1,112 @@
+package by.ilyushenko.farm.benchmark;
+
+import by.ilyushenko.farm.dto.FarmInventoryView;
+import by.ilyushenko.farm.dto.FarmView;
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.dto.VegetableView;
+import by.ilyushenko.farm.json.FarmJsonModule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing produce lists and farm inventories with the default bean mapping
+ * ({@code mapping=default}) versus {@link FarmJsonModule} ({@code mapping=module}).
+ * Output goes to a counting stream, so the {@code bytes} counter reports bytes/s.
+ * Divide the gc profiler's {@code gc.alloc.rate.norm} by {@code size} to get
+ * allocations per element. No Spring context is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"default", "module"})
+    public String mapping;
+
+    // Elements per list; the inventory holds size vegetables and size fruits
+    @Param({"1000"})
+    public int size;
+
+    private ObjectWriter fruitListWriter;
+    private ObjectWriter inventoryWriter;
+    private List<FruitView> fruits;
+    private FarmInventoryView inventory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        switch (mapping) {
+            case "default" -> { }
+            case "module" -> mapper.registerModule(new FarmJsonModule());
+            default -> throw new IllegalArgumentException("mapping must be 'default' or 'module'");
+        }
+        fruitListWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, FruitView.class));
+        inventoryWriter = mapper.writerFor(FarmInventoryView.class);
+
+        fruits = new ArrayList<>(size);
+        List<VegetableView> vegetables = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            double weight = 10 + ThreadLocalRandom.current().nextDouble(500);
+            fruits.add(new FruitView(i, BenchmarkContext.randomName(), BenchmarkContext.randomColor(),
+                    weight, 0L, 1L, "Bench Farm 1"));
+            vegetables.add(new VegetableView(i, BenchmarkContext.randomName(), BenchmarkContext.randomColor(),
+                    weight, 0L, 1L, "Bench Farm 1"));
+        }
+        inventory = new FarmInventoryView(new FarmView(1L, "Bench Farm 1", "Region 1", 0L), vegetables, fruits);
+    }
+
+    @Benchmark
+    public void fruitList(ByteCounter out) throws IOException {
+        fruitListWriter.writeValue(out.stream, fruits);
+    }
+
+    @Benchmark
+    public void farmInventory(ByteCounter out) throws IOException {
+        inventoryWriter.writeValue(out.stream, inventory);
+    }
+
+    /**
+     * Counts bytes written to {@link #stream} and discards them. JMH reports the
+     * public counter as a rate.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class ByteCounter {
+
+        public long bytes;
+
+        final OutputStream stream = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes += len;
+            }
+
+            // ObjectWriter closes the target by default; the stream must outlive the call
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
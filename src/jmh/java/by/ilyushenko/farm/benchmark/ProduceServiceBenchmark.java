@@ -0,0 +1,55 @@
+package by.ilyushenko.farm.benchmark;
+
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.dto.VegetableView;
+import by.ilyushenko.farm.entity.Fruit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProduceServiceBenchmark {
+
+    @Benchmark
+    public Fruit createFruit(BenchmarkContext ctx) {
+        Fruit fruit = new Fruit(BenchmarkContext.randomName(), BenchmarkContext.randomColor(),
+                10 + ThreadLocalRandom.current().nextDouble(500), null);
+        return ctx.fruitService.createFruit(fruit, ctx.randomFarmId());
+    }
+
+    @Benchmark
+    public Fruit moveFruitToFarm(BenchmarkContext ctx) {
+        return ctx.fruitService.moveFruitToFarm(ctx.randomFruitId(), ctx.randomFarmId(), null);
+    }
+
+    @Benchmark
+    public List<FruitView> findFruitsByNameLike(BenchmarkContext ctx) {
+        return ctx.fruitService.findByName("ppl");
+    }
+
+    @Benchmark
+    public List<FruitView> findFruitsByColorLike(BenchmarkContext ctx) {
+        return ctx.fruitService.findByColor("ell");
+    }
+
+    @Benchmark
+    public List<VegetableView> findVegetablesByNameLike(BenchmarkContext ctx) {
+        return ctx.vegetableService.findByName("rro");
+    }
+
+    @Benchmark
+    public List<FruitView> searchFruitsByName(BenchmarkContext ctx) {
+        return ctx.fruitService.searchFruits("ppl", "name", 50);
+    }
+
+    @Benchmark
+    public List<VegetableView> searchVegetablesByName(BenchmarkContext ctx) {
+        return ctx.vegetableService.searchVegetables("rro", "name", 50);
+    }
+}
@@ -0,0 +1,59 @@
+package by.ilyushenko.farm.benchmark;
+
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.repository.ReactiveReadRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full fruit listing consumed by a slow client: the blocking variant materializes
+ * the whole list before the first element is handed out, the reactive one streams
+ * rows on demand. Run with the gc profiler to compare allocation per listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReactiveReadBenchmark {
+
+    // CPU work per element, simulating a consumer slower than the database
+    @Param({"0", "1000"})
+    public long consumerTokens;
+
+    private ReactiveReadRepository reactiveReadRepository;
+
+    @Setup(Level.Trial)
+    public void resolve(BenchmarkContext ctx) {
+        reactiveReadRepository = ctx.context.getBean(ReactiveReadRepository.class);
+    }
+
+    @Benchmark
+    public void blockingList(BenchmarkContext ctx, Blackhole blackhole) {
+        List<FruitView> fruits = ctx.fruitService.getAllFruits();
+        for (FruitView fruit : fruits) {
+            Blackhole.consumeCPU(consumerTokens);
+            blackhole.consume(fruit);
+        }
+    }
+
+    @Benchmark
+    public void reactiveStream(Blackhole blackhole) {
+        reactiveReadRepository.findFruits(null)
+                .limitRate(256)
+                .doOnNext(fruit -> {
+                    Blackhole.consumeCPU(consumerTokens);
+                    blackhole.consume(fruit);
+                })
+                .blockLast();
+    }
+}
@@ -0,0 +1,87 @@
+package by.ilyushenko.farm.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to a ready application context ({@code start}) and time until the first
+ * HTTP request is answered by a freshly started server ({@code firstRequest}).
+ * The file database directory is kept for the whole trial, so after the first
+ * start migrations are already applied and the measurement reflects a regular
+ * restart. Compare {@code profile=default} with {@code fast-start}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+public class StartupBenchmark {
+
+    @Param({"mem", "file"})
+    public String storage;
+
+    @Param({"default", "fast-start"})
+    public String profile;
+
+    private Path dataDir;
+    private HttpClient client;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void createDataDir() throws IOException {
+        dataDir = Files.createTempDirectory("farm-startup");
+        client = HttpClient.newHttpClient();
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        context = BenchmarkContext.boot(storage, profile, dataDir);
+        return context;
+    }
+
+    @Benchmark
+    public int firstRequest() throws IOException, InterruptedException {
+        context = BenchmarkContext.boot(storage, profile, dataDir, WebApplicationType.SERVLET);
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/farms")).build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/farms returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDataDir() throws IOException {
+        BenchmarkContext.deleteRecursively(dataDir);
+    }
+}
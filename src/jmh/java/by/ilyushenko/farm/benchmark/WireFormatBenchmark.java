@@ -0,0 +1,94 @@
+package by.ilyushenko.farm.benchmark;
+
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.json.FarmJsonModule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a fruit list response and decoding a bulk ingest body in JSON, Smile
+ * and CBOR, with mappers built the way the application builds its converters.
+ * The {@code payloadBytes} counter is the encoded size of one list (constant per
+ * {@code format} and {@code size}). No Spring context is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"1000"})
+    public int size;
+
+    private ObjectWriter fruitListWriter;
+    private ObjectReader batchReader;
+    private List<FruitView> fruits;
+    private byte[] encodedBatch;
+    private int encodedFruitsSize;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            default -> throw new IllegalArgumentException("format must be 'json', 'smile' or 'cbor'");
+        };
+        ObjectMapper mapper = builder.modulesToInstall(new FarmJsonModule()).build();
+        fruitListWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, FruitView.class));
+        batchReader = mapper.readerFor(mapper.getTypeFactory().constructCollectionType(List.class, ProduceBatchItem.class));
+
+        fruits = new ArrayList<>(size);
+        List<ProduceBatchItem> batch = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            String name = BenchmarkContext.randomName();
+            String color = BenchmarkContext.randomColor();
+            double weight = 10 + ThreadLocalRandom.current().nextDouble(500);
+            long farmId = 1 + i % 100;
+            fruits.add(new FruitView(i, name, color, weight, 0L, farmId, "Bench Farm " + farmId));
+            batch.add(new ProduceBatchItem(name, color, weight, farmId));
+        }
+        encodedBatch = mapper.writeValueAsBytes(batch);
+        encodedFruitsSize = fruitListWriter.writeValueAsBytes(fruits).length;
+    }
+
+    @Benchmark
+    public byte[] encodeFruitList(PayloadSize payload) throws IOException {
+        payload.payloadBytes = encodedFruitsSize;
+        return fruitListWriter.writeValueAsBytes(fruits);
+    }
+
+    @Benchmark
+    public List<ProduceBatchItem> decodeBatch(PayloadSize payload) throws IOException {
+        payload.payloadBytes = encodedBatch.length;
+        return batchReader.readValue(encodedBatch);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+
+        public long payloadBytes;
+    }
+}
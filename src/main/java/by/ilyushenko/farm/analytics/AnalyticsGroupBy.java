@@ -0,0 +1,18 @@
+package by.ilyushenko.farm.analytics;
+
+import java.util.Locale;
+
+public enum AnalyticsGroupBy {
+    COLOR,
+    NAME,
+    FARM;
+
+    public static AnalyticsGroupBy fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестное поле группировки: " + value
+                    + ". Допустимые значения: color, name, farm");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package by.ilyushenko.farm.analytics;
+
+import by.ilyushenko.farm.dto.ProduceRowDTO;
+import by.ilyushenko.farm.dto.WeightGroupDTO;
+import by.ilyushenko.farm.event.ChangeType;
+import by.ilyushenko.farm.event.FarmChangedEvent;
+import by.ilyushenko.farm.event.FarmProduceRemovedEvent;
+import by.ilyushenko.farm.event.ProduceBulkChangedEvent;
+import by.ilyushenko.farm.event.ProduceChangedEvent;
+import by.ilyushenko.farm.event.ProduceType;
+import by.ilyushenko.farm.repository.FruitRepository;
+import by.ilyushenko.farm.repository.VegetableRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Answers weight aggregates over all produce from in-memory {@link ProduceColumns},
+ * one per produce type. Like the search index, the columns are loaded once on
+ * startup and then kept current from committed service events, so the bean is
+ * eager even when lazy initialization is on.
+ */
+@Service
+@Lazy(false)
+public class ProduceAnalyticsService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProduceAnalyticsService.class);
+
+    private final Map<ProduceType, ProduceColumns> columns = new EnumMap<>(ProduceType.class);
+    private final FruitRepository fruitRepository;
+    private final VegetableRepository vegetableRepository;
+    private final int rebuildChunkSize;
+
+    @Autowired
+    public ProduceAnalyticsService(FruitRepository fruitRepository,
+                                   VegetableRepository vegetableRepository,
+                                   @Value("${farm.analytics.rebuild-chunk-size:5000}") int rebuildChunkSize) {
+        this.fruitRepository = fruitRepository;
+        this.vegetableRepository = vegetableRepository;
+        this.rebuildChunkSize = rebuildChunkSize;
+        for (ProduceType type : ProduceType.values()) {
+            columns.put(type, new ProduceColumns());
+        }
+    }
+
+    /**
+     * Weight count/total/average/min/max per group, largest total first.
+     *
+     * @param produceType {@code null} to aggregate fruits and vegetables together
+     * @param farmId      {@code null} for all farms
+     */
+    public List<WeightGroupDTO> getWeightStats(AnalyticsGroupBy groupBy, ProduceType produceType, Long farmId) {
+        Map<String, WeightAccumulator> groups = new HashMap<>();
+        if (produceType == null) {
+            columns.values().forEach(c -> c.aggregateInto(groupBy, farmId, groups));
+        } else {
+            columns.get(produceType).aggregateInto(groupBy, farmId, groups);
+        }
+        List<WeightGroupDTO> result = new ArrayList<>(groups.size());
+        groups.forEach((key, accumulator) -> result.add(accumulator.toDto(key)));
+        result.sort(Comparator.comparing(WeightGroupDTO::getTotalWeight).reversed());
+        return result;
+    }
+
+    public int size(ProduceType type) {
+        return columns.get(type).size();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        columns.values().forEach(ProduceColumns::clear);
+        loadAll(ProduceType.FRUIT, fruitRepository::findRowsAfter);
+        loadAll(ProduceType.VEGETABLE, vegetableRepository::findRowsAfter);
+        log.info("Produce analytics columns loaded in {} ms: {} fruits, {} vegetables",
+                System.currentTimeMillis() - started, size(ProduceType.FRUIT), size(ProduceType.VEGETABLE));
+    }
+
+    @TransactionalEventListener
+    public void onFarmChanged(FarmChangedEvent event) {
+        if (event.getChangeType() == ChangeType.DELETED) {
+            columns.values().forEach(c -> c.removeFarms(Set.of(event.getFarmId())));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onProduceChanged(ProduceChangedEvent event) {
+        ProduceColumns target = columns.get(event.getProduceType());
+        if (event.getChangeType() == ChangeType.DELETED) {
+            target.remove(event.getId());
+        } else {
+            target.put(event.getId(), event.getFarmId(), event.getName(), event.getColor(), event.getWeight());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onFarmProduceRemoved(FarmProduceRemovedEvent event) {
+        columns.get(event.getProduceType()).removeFarms(Set.of(event.getFarmId()));
+    }
+
+    @TransactionalEventListener
+    public void onProduceBulkChanged(ProduceBulkChangedEvent event) {
+        if (event.getFarmIds().isEmpty()) {
+            return;
+        }
+        List<ProduceRowDTO> rows = event.getProduceType() == ProduceType.FRUIT
+                ? fruitRepository.findRowsByFarmIds(event.getFarmIds())
+                : vegetableRepository.findRowsByFarmIds(event.getFarmIds());
+        columns.get(event.getProduceType()).replaceFarms(event.getFarmIds(), rows);
+    }
+
+    private void loadAll(ProduceType type, BiFunction<Long, Limit, List<ProduceRowDTO>> chunkLoader) {
+        ProduceColumns target = columns.get(type);
+        long afterId = 0L;
+        List<ProduceRowDTO> rows = chunkLoader.apply(afterId, Limit.of(rebuildChunkSize));
+        while (!rows.isEmpty()) {
+            target.putAll(rows);
+            afterId = rows.get(rows.size() - 1).getId();
+            rows = chunkLoader.apply(afterId, Limit.of(rebuildChunkSize));
+        }
+    }
+}
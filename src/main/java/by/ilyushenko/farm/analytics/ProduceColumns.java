@@ -0,0 +1,309 @@
+package by.ilyushenko.farm.analytics;
+
+import by.ilyushenko.farm.dto.ProduceRowDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented snapshot of one produce table: parallel primitive arrays for
+ * id, farm, weight, color and name, with farms, colors and names dictionary-encoded
+ * into dense {@code int} codes. Aggregates are single passes over the code and
+ * weight arrays into per-code accumulator arrays, so no objects are touched per row.
+ * <p>
+ * Rows are kept dense: deleting a row moves the last row into its place.
+ * Dictionaries only grow; codes of values that are no longer used simply end up
+ * with empty groups until the next {@link #clear()}.
+ */
+final class ProduceColumns {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] farmCodes = new int[INITIAL_CAPACITY];
+    private double[] weights = new double[INITIAL_CAPACITY];
+    private int[] colorCodes = new int[INITIAL_CAPACITY];
+    private int[] nameCodes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private final LongIntMap rowById = new LongIntMap(INITIAL_CAPACITY);
+    private final LongIntMap farmCodeById = new LongIntMap(64);
+    private long[] farmIdByCode = new long[64];
+    private int farmCount;
+    private final Dictionary colors = new Dictionary();
+    private final Dictionary names = new Dictionary();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void put(long id, long farmId, String name, String color, double weight) {
+        lock.writeLock().lock();
+        try {
+            putInternal(id, farmId, name, color, weight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putAll(Collection<ProduceRowDTO> rows) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(size + rows.size());
+            for (ProduceRowDTO row : rows) {
+                putInternal(row.getId(), row.getFarmId(), row.getName(), row.getColor(), row.getWeight());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int row = rowById.remove(id);
+            if (row < 0) {
+                return;
+            }
+            int last = --size;
+            if (row != last) {
+                copyRow(last, row);
+                rowById.put(ids[row], row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops all rows of the given farms and adds {@code rows} in a single write,
+     * so readers never observe the farms half-loaded.
+     */
+    void replaceFarms(Collection<Long> farmIds, Collection<ProduceRowDTO> rows) {
+        lock.writeLock().lock();
+        try {
+            removeFarmsInternal(farmIds);
+            ensureCapacity(size + rows.size());
+            for (ProduceRowDTO row : rows) {
+                putInternal(row.getId(), row.getFarmId(), row.getName(), row.getColor(), row.getWeight());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeFarms(Collection<Long> farmIds) {
+        lock.writeLock().lock();
+        try {
+            removeFarmsInternal(farmIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            rowById.clear();
+            farmCodeById.clear();
+            farmCount = 0;
+            colors.clear();
+            names.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the weight totals of every non-empty group to {@code groups}, keyed by
+     * color, name or farm id. With {@code farmId} set only that farm's rows count.
+     */
+    void aggregateInto(AnalyticsGroupBy groupBy, Long farmId, Map<String, WeightAccumulator> groups) {
+        lock.readLock().lock();
+        try {
+            int farmFilter = -1;
+            if (farmId != null) {
+                farmFilter = farmCodeById.get(farmId);
+                if (farmFilter < 0) {
+                    return;
+                }
+            }
+            int[] keys = switch (groupBy) {
+                case COLOR -> colorCodes;
+                case NAME -> nameCodes;
+                case FARM -> farmCodes;
+            };
+            int groupCount = switch (groupBy) {
+                case COLOR -> colors.size();
+                case NAME -> names.size();
+                case FARM -> farmCount;
+            };
+
+            long[] counts = new long[groupCount];
+            double[] totals = new double[groupCount];
+            double[] mins = new double[groupCount];
+            double[] maxs = new double[groupCount];
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+
+            //1. Один проход по колонкам без ветвления на фильтр внутри цикла
+            if (farmFilter < 0) {
+                for (int i = 0; i < size; i++) {
+                    int group = keys[i];
+                    double weight = weights[i];
+                    counts[group]++;
+                    totals[group] += weight;
+                    mins[group] = Math.min(mins[group], weight);
+                    maxs[group] = Math.max(maxs[group], weight);
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (farmCodes[i] != farmFilter) {
+                        continue;
+                    }
+                    int group = keys[i];
+                    double weight = weights[i];
+                    counts[group]++;
+                    totals[group] += weight;
+                    mins[group] = Math.min(mins[group], weight);
+                    maxs[group] = Math.max(maxs[group], weight);
+                }
+            }
+
+            //2. Декодируем только непустые группы
+            for (int group = 0; group < groupCount; group++) {
+                if (counts[group] > 0) {
+                    groups.computeIfAbsent(label(groupBy, group), key -> new WeightAccumulator())
+                            .merge(counts[group], totals[group], mins[group], maxs[group]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putInternal(long id, long farmId, String name, String color, double weight) {
+        int row = rowById.get(id);
+        if (row < 0) {
+            ensureCapacity(size + 1);
+            row = size++;
+            ids[row] = id;
+            rowById.put(id, row);
+        }
+        farmCodes[row] = encodeFarm(farmId);
+        weights[row] = weight;
+        colorCodes[row] = colors.encode(color);
+        nameCodes[row] = names.encode(name);
+    }
+
+    private void removeFarmsInternal(Collection<Long> farmIds) {
+        boolean[] removed = new boolean[farmCount];
+        boolean any = false;
+        for (Long farmId : farmIds) {
+            int code = farmCodeById.get(farmId);
+            if (code >= 0) {
+                removed[code] = true;
+                any = true;
+            }
+        }
+        if (!any) {
+            return;
+        }
+        // Уплотняем колонки одним проходом, сохраняя порядок оставшихся строк
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (removed[farmCodes[read]]) {
+                rowById.remove(ids[read]);
+                continue;
+            }
+            if (write != read) {
+                copyRow(read, write);
+                rowById.put(ids[write], write);
+            }
+            write++;
+        }
+        size = write;
+    }
+
+    private void copyRow(int from, int to) {
+        ids[to] = ids[from];
+        farmCodes[to] = farmCodes[from];
+        weights[to] = weights[from];
+        colorCodes[to] = colorCodes[from];
+        nameCodes[to] = nameCodes[from];
+    }
+
+    private int encodeFarm(long farmId) {
+        int code = farmCodeById.get(farmId);
+        if (code < 0) {
+            if (farmCount == farmIdByCode.length) {
+                farmIdByCode = Arrays.copyOf(farmIdByCode, farmCount * 2);
+            }
+            code = farmCount++;
+            farmIdByCode[code] = farmId;
+            farmCodeById.put(farmId, code);
+        }
+        return code;
+    }
+
+    private String label(AnalyticsGroupBy groupBy, int code) {
+        return switch (groupBy) {
+            case COLOR -> colors.decode(code);
+            case NAME -> names.decode(code);
+            case FARM -> String.valueOf(farmIdByCode[code]);
+        };
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        farmCodes = Arrays.copyOf(farmCodes, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        colorCodes = Arrays.copyOf(colorCodes, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void clear() {
+            codes.clear();
+            values.clear();
+        }
+    }
+}
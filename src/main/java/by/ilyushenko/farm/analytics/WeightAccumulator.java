@@ -0,0 +1,29 @@
+package by.ilyushenko.farm.analytics;
+
+import by.ilyushenko.farm.dto.WeightGroupDTO;
+
+/**
+ * Mutable per-group totals used to merge fruit and vegetable column results.
+ */
+final class WeightAccumulator {
+
+    private long count;
+    private double totalWeight;
+    private double minWeight = Double.POSITIVE_INFINITY;
+    private double maxWeight = Double.NEGATIVE_INFINITY;
+
+    void merge(long count, double totalWeight, double minWeight, double maxWeight) {
+        this.count += count;
+        this.totalWeight += totalWeight;
+        this.minWeight = Math.min(this.minWeight, minWeight);
+        this.maxWeight = Math.max(this.maxWeight, maxWeight);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    WeightGroupDTO toDto(String key) {
+        return new WeightGroupDTO(key, count, totalWeight, minWeight, maxWeight);
+    }
+}
@@ -0,0 +1,63 @@
+package by.ilyushenko.farm.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Conditional, read-through serving of per-farm GET responses.
+ * <p>
+ * The ETag comes from {@link FarmVersionRegistry} and is taken before anything is
+ * loaded: a matching {@code If-None-Match} is answered with 304 from memory, and a
+ * body cached under the same ETag is returned as is. Only a miss calls the loader
+ * and serializes its result into {@link ResponseBytesCache}.
+ */
+@Component
+public class FarmResponseCache {
+
+    private final FarmVersionRegistry versionRegistry;
+    private final ResponseBytesCache bytesCache;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public FarmResponseCache(FarmVersionRegistry versionRegistry,
+                             ResponseBytesCache bytesCache,
+                             ObjectMapper objectMapper) {
+        this.versionRegistry = versionRegistry;
+        this.bytesCache = bytesCache;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param resource name of the endpoint, part of the ETag and cache key
+     * @param loader   produces the response body; empty results in 404 and is not cached
+     * @return {@code null} when a 304 has already been written to the response
+     */
+    public ResponseEntity<byte[]> serve(String resource, Long farmId, WebRequest request,
+                                        Supplier<? extends Optional<?>> loader) throws IOException {
+        String etag = versionRegistry.etag(resource, farmId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        byte[] body = bytesCache.get(etag);
+        if (body == null) {
+            Optional<?> value = loader.get();
+            if (value.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            body = objectMapper.writeValueAsBytes(value.get());
+            bytesCache.put(etag, body);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,95 @@
+package by.ilyushenko.farm.cache;
+
+import by.ilyushenko.farm.event.FarmChangedEvent;
+import by.ilyushenko.farm.event.FarmProduceRemovedEvent;
+import by.ilyushenko.farm.event.ProduceBulkChangedEvent;
+import by.ilyushenko.farm.event.ProduceChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-farm version counters, bumped by every farm or produce change event of the
+ * services. A version is bumped when the event is published and once more after
+ * commit, so a response built in between from the not yet committed state cannot
+ * keep a current version. Versions of deleted farms are kept, never reset.
+ * <p>
+ * Counters live in memory only; the ETags therefore also carry a random epoch
+ * chosen on startup, so a restart never reissues an ETag for different content.
+ */
+@Component
+public class FarmVersionRegistry {
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    public long currentVersion(Long farmId) {
+        return versions.getOrDefault(farmId, 0L);
+    }
+
+    /**
+     * Strong ETag of {@code resource} for the given farm at its current version.
+     */
+    public String etag(String resource, Long farmId) {
+        return "\"" + resource + "-" + farmId + "-" + epoch + "-" + currentVersion(farmId) + "\"";
+    }
+
+    @EventListener
+    public void onFarmChangePublished(FarmChangedEvent event) {
+        bump(List.of(event.getFarmId()));
+    }
+
+    @TransactionalEventListener
+    public void onFarmChangeCommitted(FarmChangedEvent event) {
+        bump(List.of(event.getFarmId()));
+    }
+
+    @EventListener
+    public void onProduceChangePublished(ProduceChangedEvent event) {
+        bump(produceFarms(event));
+    }
+
+    @TransactionalEventListener
+    public void onProduceChangeCommitted(ProduceChangedEvent event) {
+        bump(produceFarms(event));
+    }
+
+    @EventListener
+    public void onProduceBulkChangePublished(ProduceBulkChangedEvent event) {
+        bump(event.getFarmIds());
+    }
+
+    @TransactionalEventListener
+    public void onProduceBulkChangeCommitted(ProduceBulkChangedEvent event) {
+        bump(event.getFarmIds());
+    }
+
+    @EventListener
+    public void onFarmProduceRemovalPublished(FarmProduceRemovedEvent event) {
+        bump(List.of(event.getFarmId()));
+    }
+
+    @TransactionalEventListener
+    public void onFarmProduceRemovalCommitted(FarmProduceRemovedEvent event) {
+        bump(List.of(event.getFarmId()));
+    }
+
+    private static List<Long> produceFarms(ProduceChangedEvent event) {
+        return event.getPreviousFarmId() == null || event.getPreviousFarmId().equals(event.getFarmId())
+                ? List.of(event.getFarmId())
+                : List.of(event.getFarmId(), event.getPreviousFarmId());
+    }
+
+    private void bump(Collection<Long> farmIds) {
+        farmIds.stream()
+                .filter(Objects::nonNull)
+                .forEach(farmId -> versions.merge(farmId, 1L, Long::sum));
+    }
+}
@@ -0,0 +1,68 @@
+package by.ilyushenko.farm.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caffeine cache of serialized response bodies bounded by their total size in bytes
+ * ({@code farm.response-cache.max-bytes}, each entry weighs its body length). Keys embed
+ * the farm version, so entries of outdated versions are never read again and simply age out.
+ * Bodies larger than a quarter of the budget are not cached.
+ * <p>
+ * Lookups are lock-free; eviction runs in Caffeine's maintenance cycle, so the byte
+ * total may briefly exceed the budget.
+ * Publishes the standard cache meters for {@code cache=farm.response}
+ * ({@code cache.gets{result=hit|miss}}, {@code cache.evictions}, {@code cache.size})
+ * and {@code farm.response.cache.bytes}.
+ */
+@Component
+public class ResponseBytesCache {
+
+    private static final String CACHE_NAME = "farm.response";
+
+    private final Cache<String, byte[]> entries;
+    private final long maxBytes;
+
+    @Autowired
+    public ResponseBytesCache(@Value("${farm.response-cache.max-bytes:16777216}") long maxBytes,
+                              MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, byte[] body) -> body.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+        Gauge.builder("farm.response.cache.bytes", this, ResponseBytesCache::bytes)
+                .description("Total size of cached response bodies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public byte[] get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    public void put(String key, byte[] body) {
+        if (body.length > maxBytes / 4) {
+            return;
+        }
+        entries.put(key, body);
+    }
+
+    public long bytes() {
+        return entries.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+}
@@ -0,0 +1,36 @@
+package by.ilyushenko.farm.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Refuses to start the AOT-processed context ({@code -Dspring.aot.enabled=true})
+ * with a profile set other than the one {@code processAot} ran with (see
+ * build.gradle). Auto-configuration conditions were evaluated at build time, so
+ * for example {@code prod} would come up without Flyway and with the in-memory
+ * datasource settings of the build.
+ */
+@Component
+@Lazy(false)
+public class AotProfileGuard {
+
+    // Must match the processAot arguments in build.gradle
+    static final Set<String> AOT_PROFILES = Set.of("fast-start");
+
+    @Autowired
+    public AotProfileGuard(Environment environment) {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        Set<String> active = Set.of(environment.getActiveProfiles());
+        if (!active.equals(AOT_PROFILES)) {
+            throw new IllegalStateException("AOT-сборка подготовлена для профилей " + AOT_PROFILES
+                    + ", активны " + active + "; запустите без -Dspring.aot.enabled=true или пересоберите processAot");
+        }
+    }
+}
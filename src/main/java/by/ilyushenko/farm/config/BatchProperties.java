@@ -0,0 +1,32 @@
+package by.ilyushenko.farm.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "farm.batch")
+public class BatchProperties {
+
+    /**
+     * Entities persisted between flush/clear cycles; keep it a multiple of hibernate.jdbc.batch_size.
+     */
+    private int flushSize = 500;
+
+    private int maxItems = 100_000;
+
+    public int getFlushSize() {
+        return flushSize;
+    }
+
+    public void setFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+}
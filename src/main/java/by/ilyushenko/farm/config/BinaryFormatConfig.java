@@ -0,0 +1,43 @@
+package by.ilyushenko.farm.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Smile and CBOR request/response bodies for clients that ask for them with
+ * {@code Accept} / {@code Content-Type}. The mappers come from Spring Boot's
+ * {@link Jackson2ObjectMapperBuilder}, so they carry the same modules (including
+ * the view serializers) and settings as the JSON mapper. The converters go after
+ * the JSON converter, so clients that accept any media type still get JSON.
+ */
+@Configuration
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    @Autowired
+    public BinaryFormatConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.builders = builders;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring MVC adds its own Smile/CBOR converters when the dataformats are present; they are
+        // built without Boot's customizations, so they are replaced rather than kept alongside
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        // The builder bean is prototype-scoped, each getObject() is a fresh copy
+        converters.add(new MappingJackson2SmileHttpMessageConverter(builders.getObject().smile().build()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(builders.getObject().cbor().build()));
+    }
+}
@@ -0,0 +1,58 @@
+package by.ilyushenko.farm.config;
+
+import by.ilyushenko.farm.entity.CacheRegions;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes Hibernate second-level and query cache hit/miss/put counts as
+ * {@code farm.cache.*} meters (see {@code /actuator/metrics}).
+ * Requires {@code hibernate.generate_statistics=true}.
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : CacheRegions.ALL) {
+                registerRegion(registry, statistics, region, "hit", CacheRegionStatistics::getHitCount);
+                registerRegion(registry, statistics, region, "miss", CacheRegionStatistics::getMissCount);
+                registerRegion(registry, statistics, region, "put", CacheRegionStatistics::getPutCount);
+            }
+            FunctionCounter.builder("farm.cache.query", statistics, Statistics::getQueryCacheHitCount)
+                    .tag("result", "hit")
+                    .description("Query cache lookups")
+                    .register(registry);
+            FunctionCounter.builder("farm.cache.query", statistics, Statistics::getQueryCacheMissCount)
+                    .tag("result", "miss")
+                    .description("Query cache lookups")
+                    .register(registry);
+            FunctionCounter.builder("farm.cache.query.puts", statistics, Statistics::getQueryCachePutCount)
+                    .description("Query results stored in the query cache")
+                    .register(registry);
+        };
+    }
+
+    private static void registerRegion(MeterRegistry registry, Statistics statistics, String region,
+                                       String result, ToDoubleFunction<CacheRegionStatistics> count) {
+        FunctionCounter.builder("farm.cache.region", statistics, s -> {
+                    CacheRegionStatistics regionStatistics = s.getDomainDataRegionStatistics(region);
+                    return regionStatistics == null ? 0 : count.applyAsDouble(regionStatistics);
+                })
+                .tag("region", region)
+                .tag("result", result)
+                .description("Second-level cache region activity")
+                .register(registry);
+    }
+}
@@ -0,0 +1,43 @@
+package by.ilyushenko.farm.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes connection pool saturation next to Hikari's own
+ * {@code hikaricp.connections.active/idle/pending} meters:
+ * {@code farm.pool.saturation} (active / maximum pool size, 1.0 means every
+ * connection is borrowed) and {@code farm.pool.waiting} (threads blocked
+ * waiting for a connection). Both read 0 until the pool has started.
+ */
+@Configuration
+public class ConnectionPoolMetricsConfig {
+
+    @Bean
+    public MeterBinder connectionPoolSaturationMetrics(HikariDataSource dataSource) {
+        return registry -> {
+            Gauge.builder("farm.pool.saturation", dataSource,
+                            pool(p -> (double) p.getActiveConnections() / dataSource.getMaximumPoolSize()))
+                    .tag("pool", String.valueOf(dataSource.getPoolName()))
+                    .description("Share of the pool's connections currently borrowed")
+                    .register(registry);
+            Gauge.builder("farm.pool.waiting", dataSource, pool(HikariPoolMXBean::getThreadsAwaitingConnection))
+                    .tag("pool", String.valueOf(dataSource.getPoolName()))
+                    .description("Threads blocked waiting for a connection")
+                    .register(registry);
+        };
+    }
+
+    private static ToDoubleFunction<HikariDataSource> pool(ToDoubleFunction<HikariPoolMXBean> value) {
+        return ds -> {
+            HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+            return pool == null ? 0 : value.applyAsDouble(pool);
+        };
+    }
+}
@@ -1,17 +1,33 @@
 package by.ilyushenko.farm.config;
 
+import by.ilyushenko.farm.dto.ProduceBatchItem;
 import by.ilyushenko.farm.entity.Farm;
-import by.ilyushenko.farm.entity.Fruit;
-import by.ilyushenko.farm.entity.Vegetable;
 import by.ilyushenko.farm.service.FarmServiceInterface;
 import by.ilyushenko.farm.service.FruitServiceInterface;
 import by.ilyushenko.farm.service.VegetableServiceInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
+
+/**
+ * Inserts the sample farms and produce in one transaction, with produce going
+ * through the batch APIs. With {@code farm.seed.async=true} the load runs on a
+ * background thread so it does not delay the first request. {@code farm.seed.enabled}
+ * is checked when the runner is called rather than by a bean condition, which an
+ * AOT-processed build would have fixed at build time.
+ */
 @Component
 public class DataInitializer implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
     
     @Autowired
     private FarmServiceInterface farmService;
@@ -21,44 +37,52 @@ public class DataInitializer implements CommandLineRunner {
     
     @Autowired
     private FruitServiceInterface fruitService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${farm.seed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${farm.seed.async:false}")
+    private boolean async;
     
     @Override
-    public void run(String... args) throws Exception {
-        // Create sample farms
-        Farm farm1 = new Farm("Green Valley Farm", "California, USA");
-        Farm farm2 = new Farm("Sunny Fields", "Texas, USA");
-        Farm farm3 = new Farm("Organic Garden", "Oregon, USA");
-        
-        farm1 = farmService.createFarm(farm1);
-        farm2 = farmService.createFarm(farm2);
-        farm3 = farmService.createFarm(farm3);
-        
-        // Create sample vegetables
-        Vegetable carrot = new Vegetable("Carrot", "Orange", 150.0, farm1);
-        Vegetable tomato = new Vegetable("Tomato", "Red", 200.0, farm1);
-        Vegetable lettuce = new Vegetable("Lettuce", "Green", 100.0, farm2);
-        Vegetable cucumber = new Vegetable("Cucumber", "Green", 180.0, farm2);
-        Vegetable potato = new Vegetable("Potato", "Brown", 300.0, farm3);
-        
-        vegetableService.createVegetable(carrot, farm1.getId());
-        vegetableService.createVegetable(tomato, farm1.getId());
-        vegetableService.createVegetable(lettuce, farm2.getId());
-        vegetableService.createVegetable(cucumber, farm2.getId());
-        vegetableService.createVegetable(potato, farm3.getId());
-        
-        // Create sample fruits
-        Fruit apple = new Fruit("Apple", "Red", 250.0, farm1);
-        Fruit banana = new Fruit("Banana", "Yellow", 120.0, farm1);
-        Fruit orange = new Fruit("Orange", "Orange", 200.0, farm2);
-        Fruit strawberry = new Fruit("Strawberry", "Red", 15.0, farm2);
-        Fruit grape = new Fruit("Grape", "Purple", 50.0, farm3);
-        
-        fruitService.createFruit(apple, farm1.getId());
-        fruitService.createFruit(banana, farm1.getId());
-        fruitService.createFruit(orange, farm2.getId());
-        fruitService.createFruit(strawberry, farm2.getId());
-        fruitService.createFruit(grape, farm3.getId());
-        
-        System.out.println("Sample data initialized successfully!");
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        if (async) {
+            new SimpleAsyncTaskExecutor("data-seed-").execute(this::seed);
+        } else {
+            seed();
+        }
+    }
+
+    private void seed() {
+        long started = System.currentTimeMillis();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Create sample farms
+            Long farm1 = farmService.createFarm(new Farm("Green Valley Farm", "California, USA")).getId();
+            Long farm2 = farmService.createFarm(new Farm("Sunny Fields", "Texas, USA")).getId();
+            Long farm3 = farmService.createFarm(new Farm("Organic Garden", "Oregon, USA")).getId();
+
+            // Create sample vegetables
+            vegetableService.createVegetables(List.of(
+                    new ProduceBatchItem("Carrot", "Orange", 150.0, farm1),
+                    new ProduceBatchItem("Tomato", "Red", 200.0, farm1),
+                    new ProduceBatchItem("Lettuce", "Green", 100.0, farm2),
+                    new ProduceBatchItem("Cucumber", "Green", 180.0, farm2),
+                    new ProduceBatchItem("Potato", "Brown", 300.0, farm3)));
+
+            // Create sample fruits
+            fruitService.createFruits(List.of(
+                    new ProduceBatchItem("Apple", "Red", 250.0, farm1),
+                    new ProduceBatchItem("Banana", "Yellow", 120.0, farm1),
+                    new ProduceBatchItem("Orange", "Orange", 200.0, farm2),
+                    new ProduceBatchItem("Strawberry", "Red", 15.0, farm2),
+                    new ProduceBatchItem("Grape", "Purple", 50.0, farm3)));
+        });
+        log.info("Sample data initialized in {} ms", System.currentTimeMillis() - started);
     }
 }
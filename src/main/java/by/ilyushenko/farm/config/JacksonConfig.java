@@ -0,0 +1,20 @@
+package by.ilyushenko.farm.config;
+
+import by.ilyushenko.farm.json.FarmJsonModule;
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the hand-written view serializers with the application's ObjectMapper
+ * (Spring Boot adds every {@link Module} bean to it), so HTTP responses, the
+ * response cache and exports all use them.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module farmJsonModule() {
+        return new FarmJsonModule();
+    }
+}
@@ -0,0 +1,24 @@
+package by.ilyushenko.farm.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes per-query Hibernate statistics ({@code hibernate.query.*}: executions,
+ * rows, total/min/max time) tagged with the HQL string.
+ * Requires {@code hibernate.generate_statistics=true}.
+ */
+@Configuration
+public class QueryMetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> new HibernateQueryMetrics(
+                entityManagerFactory.unwrap(SessionFactory.class), "farm", Tags.empty()).bindTo(registry);
+    }
+}
@@ -0,0 +1,49 @@
+package by.ilyushenko.farm.config;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access to the same H2 database the JPA layer uses, for the streaming
+ * read API. The connection settings are derived from {@code spring.datasource.*}
+ * so both drivers always open the same (in-memory or file) database.
+ * <p>
+ * Reads here are not transactional. Boot's R2DBC transaction manager is excluded in
+ * {@code application.properties}: it would make Boot's JPA transaction manager back off,
+ * and every {@code @Transactional} service method must stay on JPA.
+ */
+@Configuration
+public class ReactiveDataConfig {
+
+    private static final String JDBC_H2_PREFIX = "jdbc:h2:";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionFactory(@Value("${spring.datasource.url}") String jdbcUrl,
+                                                    @Value("${spring.datasource.username}") String username,
+                                                    @Value("${spring.datasource.password}") String password,
+                                                    @Value("${farm.reactive.pool-size:16}") int poolSize) {
+        if (!jdbcUrl.startsWith(JDBC_H2_PREFIX)) {
+            throw new IllegalStateException("Reactive read API supports only H2 datasources, got " + jdbcUrl);
+        }
+        ConnectionFactory h2 = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(jdbcUrl.substring(JDBC_H2_PREFIX.length()))
+                .username(username)
+                .password(password)
+                .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(h2)
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory reactiveConnectionFactory) {
+        return DatabaseClient.create(reactiveConnectionFactory);
+    }
+}
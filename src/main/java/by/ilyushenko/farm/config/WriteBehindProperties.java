@@ -0,0 +1,71 @@
+package by.ilyushenko.farm.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "farm.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * Enables the buffered correction pipeline and {@code POST /api/corrections}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of distinct fruits/vegetables waiting to be written.
+     */
+    private int capacity = 10_000;
+
+    /**
+     * Pending items that trigger a flush before the interval elapses.
+     */
+    private int flushSize = 500;
+
+    private long flushIntervalMs = 200;
+
+    /**
+     * How long a submission waits for space in a full buffer before it is rejected.
+     */
+    private long offerTimeoutMs = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getFlushSize() {
+        return flushSize;
+    }
+
+    public void setFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public long getOfferTimeoutMs() {
+        return offerTimeoutMs;
+    }
+
+    public void setOfferTimeoutMs(long offerTimeoutMs) {
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+}
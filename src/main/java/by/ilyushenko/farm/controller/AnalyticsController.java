@@ -0,0 +1,62 @@
+package by.ilyushenko.farm.controller;
+
+import by.ilyushenko.farm.analytics.AnalyticsGroupBy;
+import by.ilyushenko.farm.analytics.ProduceAnalyticsService;
+import by.ilyushenko.farm.dto.WeightGroupDTO;
+import by.ilyushenko.farm.event.ProduceType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/analytics")
+@Tag(name = "Produce Analytics", description = "In-memory aggregates over all fruits and vegetables")
+public class AnalyticsController {
+
+    private final ProduceAnalyticsService analyticsService;
+
+    @Autowired
+    public AnalyticsController(ProduceAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @GetMapping("/weight")
+    @Operation(summary = "Aggregate produce weight",
+            description = "Count, total, average, min and max weight per color, name or farm, largest total first. " +
+                    "Served from an in-memory columnar snapshot kept in sync with committed changes.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed weight groups"),
+            @ApiResponse(responseCode = "400", description = "Unknown groupBy or type")
+    })
+    public ResponseEntity<List<WeightGroupDTO>> getWeightStats(
+            @Parameter(description = "Grouping: 'color', 'name' or 'farm'")
+            @RequestParam(defaultValue = "color") String groupBy,
+            @Parameter(description = "Restrict to a single farm")
+            @RequestParam(required = false) Long farmId,
+            @Parameter(description = "Produce type: 'fruit', 'vegetable' or 'all'")
+            @RequestParam(defaultValue = "all") String type) {
+        return ResponseEntity.ok(analyticsService.getWeightStats(
+                AnalyticsGroupBy.fromParameter(groupBy), parseType(type), farmId));
+    }
+
+    private ProduceType parseType(String type) {
+        return switch (type.trim().toLowerCase(Locale.ROOT)) {
+            case "all" -> null;
+            case "fruit" -> ProduceType.FRUIT;
+            case "vegetable" -> ProduceType.VEGETABLE;
+            default -> throw new IllegalArgumentException("Неизвестный тип продукции: " + type
+                    + ". Допустимые значения: fruit, vegetable, all");
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package by.ilyushenko.farm.controller;
+
+import by.ilyushenko.farm.config.BatchProperties;
+import by.ilyushenko.farm.config.WriteBehindProperties;
+import by.ilyushenko.farm.dto.ProduceCorrection;
+import by.ilyushenko.farm.writebehind.ProduceWriteBehindBuffer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/corrections")
+@Tag(name = "Produce Corrections", description = "Buffered high-rate fruit and vegetable corrections")
+public class CorrectionController {
+
+    private final ProduceWriteBehindBuffer writeBehindBuffer;
+    private final WriteBehindProperties writeBehindProperties;
+    private final BatchProperties batchProperties;
+    private final Validator validator;
+
+    @Autowired
+    public CorrectionController(ProduceWriteBehindBuffer writeBehindBuffer,
+                                WriteBehindProperties writeBehindProperties,
+                                BatchProperties batchProperties,
+                                Validator validator) {
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.writeBehindProperties = writeBehindProperties;
+        this.batchProperties = batchProperties;
+        this.validator = validator;
+    }
+
+    @PostMapping
+    @Operation(summary = "Submit produce corrections",
+            description = "Queues partial updates (name, color, weight) of fruits and vegetables. Corrections of the same " +
+                    "item are merged, last write wins per field, and written in batches shortly after. " +
+                    "Resubmitting after a 503 is safe.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Corrections queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid correction or too many items"),
+            @ApiResponse(responseCode = "404", description = "Write-behind is disabled (farm.write-behind.enabled=false)"),
+            @ApiResponse(responseCode = "503", description = "Buffer full, retry later")
+    })
+    public ResponseEntity<Void> submitCorrections(
+            @Parameter(description = "Corrections to apply", required = true)
+            @RequestBody List<ProduceCorrection> corrections) {
+        // Флаг проверяется при запросе, а не условием на бин: AOT-сборка фиксирует такие условия на этапе сборки
+        if (!writeBehindProperties.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (corrections.size() > batchProperties.getMaxItems()) {
+            throw new IllegalArgumentException("Batch must not exceed " + batchProperties.getMaxItems() + " items");
+        }
+        //1. Проверяем все правки до постановки в очередь, чтобы не принять запрос частично из-за ошибки данных
+        for (int i = 0; i < corrections.size(); i++) {
+            ProduceCorrection correction = corrections.get(i);
+            Set<ConstraintViolation<ProduceCorrection>> violations = validator.validate(correction);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException("Правка " + i + ": " + violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            }
+            if (!correction.hasChanges()) {
+                throw new IllegalArgumentException("Правка " + i + ": нужно передать хотя бы одно из полей name, color, weight");
+            }
+        }
+        //2. Ставим в буфер; при переполнении часть правок уже принята, повтор запроса безопасен
+        corrections.forEach(writeBehindBuffer::submit);
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,35 @@
+package by.ilyushenko.farm.controller;
+
+import by.ilyushenko.farm.exception.PreconditionFailedException;
+
+/**
+ * Maps entity {@code @Version} values to strong ETags and back from {@code If-Match}.
+ */
+final class EntityVersionTags {
+
+    private EntityVersionTags() {
+    }
+
+    static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @return the expected version, or {@code null} when there is no precondition
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        // слабые теги и списки тегов не могут совпасть с версией при строгом сравнении
+        if (tag.startsWith("W/") || tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match должен содержать один строгий ETag версии: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match не соответствует ни одной версии: " + ifMatch);
+        }
+    }
+}
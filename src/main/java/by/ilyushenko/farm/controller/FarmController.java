@@ -1,7 +1,11 @@
 package by.ilyushenko.farm.controller;
 
+import by.ilyushenko.farm.cache.FarmResponseCache;
 import by.ilyushenko.farm.dto.FarmDto;
+import by.ilyushenko.farm.dto.FarmInventoryView;
+import by.ilyushenko.farm.dto.FarmSortedDTO;
 import by.ilyushenko.farm.dto.FarmStatsDTO;
+import by.ilyushenko.farm.dto.FarmView;
 import by.ilyushenko.farm.entity.Farm;
 import by.ilyushenko.farm.exception.BusinessException;
 import by.ilyushenko.farm.exception.GlobalExceptionHandler;
@@ -9,16 +13,24 @@ import by.ilyushenko.farm.exception.ResourceNotFoundException;
 import by.ilyushenko.farm.service.FarmServiceInterface;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -29,10 +41,12 @@ import java.util.Optional;
 public class FarmController {
 
     private final FarmServiceInterface farmService;
+    private final FarmResponseCache responseCache;
 
     @Autowired
-    public FarmController(FarmServiceInterface farmService) {
+    public FarmController(FarmServiceInterface farmService, FarmResponseCache responseCache) {
         this.farmService = farmService;
+        this.responseCache = responseCache;
     }
 
 
@@ -48,24 +62,39 @@ public class FarmController {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list of farms"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Farm>> getAllFarms() {
-        List<Farm> farms = farmService.getAllFarms();
+    public ResponseEntity<List<FarmInventoryView>> getAllFarms() {
+        List<FarmInventoryView> farms = farmService.getAllFarms();
         return ResponseEntity.ok(farms);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all farms", description = "Streams every farm with its vegetables and fruits as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export stream started"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportFarms() {
+        StreamingResponseBody body = farmService::exportInventory;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get farm by ID", description = "Retrieve a specific farm by its ID")
+    @Operation(summary = "Get farm by ID", description = "Retrieve a specific farm by its ID. " +
+            "Responses carry an ETag; a matching If-None-Match returns 304.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved farm"),
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved farm",
+                    content = @Content(schema = @Schema(implementation = FarmInventoryView.class))),
+            @ApiResponse(responseCode = "304", description = "Farm unchanged since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Farm not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Farm> getFarmById(
+    public ResponseEntity<byte[]> getFarmById(
             @Parameter(description = "Farm ID", required = true)
-            @PathVariable Long id) {
-        Optional<Farm> farm = farmService.getFarmById(id);
-        return farm.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+            @PathVariable Long id,
+            WebRequest request) throws IOException {
+        return responseCache.serve("farm", id, request, () -> farmService.getFarmById(id));
     }
 
     @PostMapping
@@ -75,28 +104,34 @@ public class FarmController {
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Farm> createFarm(
+    public ResponseEntity<FarmView> createFarm(
             @Parameter(description = "Farm details", required = true)
             @Valid @RequestBody Farm farm) {
         Farm createdFarm = farmService.createFarm(farm);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdFarm);
+        return ResponseEntity.status(HttpStatus.CREATED).body(FarmView.of(createdFarm));
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Update farm", description = "Update an existing farm by its ID")
+    @Operation(summary = "Update farm", description = "Update an existing farm by its ID; the ETag carries its version for If-Match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Farm updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
             @ApiResponse(responseCode = "404", description = "Farm not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent updates kept conflicting"),
+            @ApiResponse(responseCode = "412", description = "Farm changed since the If-Match version"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Farm> updateFarm(
+    public ResponseEntity<FarmView> updateFarm(
             @Parameter(description = "Farm ID", required = true)
             @PathVariable Long id,
             @Parameter(description = "Updated farm details", required = true)
-            @Valid @RequestBody Farm farmDetails) {
-        Farm updatedFarm = farmService.updateFarm(id, farmDetails);
-        return ResponseEntity.ok(updatedFarm);
+            @Valid @RequestBody Farm farmDetails,
+            @Parameter(description = "Quoted farm version (the version field of GET responses); the update is rejected if the farm changed since")
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Farm updatedFarm = farmService.updateFarm(id, farmDetails, EntityVersionTags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(EntityVersionTags.etag(updatedFarm.getVersion()))
+                .body(FarmView.of(updatedFarm));
     }
 
     @DeleteMapping("/{id}")
@@ -114,48 +149,82 @@ public class FarmController {
     }
 
     @GetMapping(("/{id}/getFarmWithFruitCount"))
-    public ResponseEntity<FarmDto> getFarmWithFruitCount(
-            @PathVariable(name = "id") Long id) {
-        FarmDto farmDto = farmService.getFarmWithFruitCount(id);
-        return ResponseEntity.ok(farmDto);
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = FarmDto.class)))
+    public ResponseEntity<byte[]> getFarmWithFruitCount(
+            @PathVariable(name = "id") Long id,
+            WebRequest request) throws IOException {
+        return responseCache.serve("fruit-count", id, request,
+                () -> Optional.of(farmService.getFarmWithFruitCount(id)));
     }
 
     //1. Поиск ферм по названию (частичный поиск)
     @GetMapping("/search")
-    public ResponseEntity<List<Farm>> searchFarms(@RequestParam(name = "name") String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return ResponseEntity.badRequest().build();
+    @Operation(summary = "Search farms", description = "Ranked substring search by name or location (prefix match for terms shorter than 3 characters)")
+    public ResponseEntity<List<FarmView>> searchFarms(
+            @RequestParam(name = "name", required = false) String searchTerm,
+            @RequestParam(name = "location", required = false) String location,
+            @Parameter(description = "Maximum number of results")
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            return ResponseEntity.ok(farmService.searchFarmsByName(searchTerm, limit));
+        }
+        if (location != null && !location.trim().isEmpty()) {
+            return ResponseEntity.ok(farmService.searchFarmsByLocation(location, limit));
         }
-        return ResponseEntity.ok(farmService.searchFarmsByName(searchTerm));
+        return ResponseEntity.badRequest().build();
     }
 
     //5. Получение статистики по ферме
     @GetMapping("/{id}/stats")
-    public ResponseEntity<FarmStatsDTO> getFarmStats(@PathVariable(name = "id") Long farmId) {
-        FarmStatsDTO farmStatsDTO = farmService.getFarmStats(farmId);
-        return ResponseEntity.ok(farmStatsDTO);
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = FarmStatsDTO.class)))
+    public ResponseEntity<byte[]> getFarmStats(@PathVariable(name = "id") Long farmId,
+                                               WebRequest request) throws IOException {
+        return responseCache.serve("stats", farmId, request,
+                () -> Optional.of(farmService.getFarmStats(farmId)));
     }
 
+    @GetMapping("/stats")
+    @Operation(summary = "Get stats for a page of farms", description = "Fruit/vegetable counts and total weight computed in the database for a page of farms ordered by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved farm stats"),
+            @ApiResponse(responseCode = "400", description = "Invalid page parameters")
+    })
+    public ResponseEntity<List<FarmStatsDTO>> getAllFarmStats(
+            @Parameter(description = "Page number (0-based)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (1-1000)")
+            @RequestParam(defaultValue = "100") int size) {
+        if (page < 0 || size < 1 || size > 1000) {
+            throw new IllegalArgumentException("page должен быть >= 0, size - от 1 до 1000");
+        }
+        return ResponseEntity.ok(farmService.getAllFarmStats(PageRequest.of(page, size, Sort.by("id"))));
+    }
+
+    // 8. Получение ферм с сортировкой по количеству фруктов или овощей
     @GetMapping("/sorted")
-    public ResponseEntity<List<FarmDto>> getFarmSorted(
+    @Operation(summary = "Get farms sorted by produce count",
+            description = "Ranks farms by fruit or vegetable count. Pass afterCount and afterId from the last row " +
+                    "of the previous page for keyset pagination; otherwise page is used as an offset.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved sorted farms"),
+            @ApiResponse(responseCode = "400", description = "Invalid sorting or page parameters")
+    })
+    public ResponseEntity<List<FarmSortedDTO>> getFarmsSorted(
+            @Parameter(description = "Sort by 'fruits' or 'vegetables'", required = true)
             @RequestParam String sortBy,
-            @RequestParam(defaultValue = "asc") String order) {
-        List<FarmDto> farms = farmService.findFarmSorted(sortBy, order);
+            @Parameter(description = "Sort order: 'asc' or 'desc'")
+            @RequestParam(defaultValue = "asc") String order,
+            @Parameter(description = "Page number (0-based), ignored when afterId is set")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (1-1000)")
+            @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Produce count of the last farm on the previous page")
+            @RequestParam(required = false) Long afterCount,
+            @Parameter(description = "ID of the last farm on the previous page")
+            @RequestParam(required = false) Long afterId) {
+        List<FarmSortedDTO> farms = afterId == null && afterCount == null
+                ? farmService.findFarmsSorted(sortBy, order, page, size)
+                : farmService.findFarmsSortedAfter(sortBy, order, afterCount, afterId, size);
         return ResponseEntity.ok(farms);
     }
-
-    // 8. Получение ферм с сортировкой по количеству фруктов или овощейpubl
-    ic ResponseEntity<List<FarmSortedDTO>>
-
-    getFarmsSorted(
-            @RequestParam String sortBy, @Req
-            uestParam(defaultValue="asc") String order)
-
-    {
-        List<FarmS
-                ortedD
-        TO > farms = farmService.findFarmsSorted(sortBy, order);
-        return ResponseEntit
-        y.ok(farms);
-    }
 }
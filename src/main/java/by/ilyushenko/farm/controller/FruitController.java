@@ -1,7 +1,15 @@
 package by.ilyushenko.farm.controller;
 
+import by.ilyushenko.farm.config.BinaryFormatConfig;
+import by.ilyushenko.farm.dto.BatchResultDTO;
+import by.ilyushenko.farm.dto.BulkMoveRequest;
+import by.ilyushenko.farm.dto.BulkMoveResultDTO;
+import by.ilyushenko.farm.dto.CursorPage;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.dto.FruitView;
 import by.ilyushenko.farm.entity.Fruit;
 import by.ilyushenko.farm.service.FruitServiceInterface;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,10 +17,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,10 +35,12 @@ import java.util.Optional;
 public class FruitController {
     
     private final FruitServiceInterface fruitService;
+    private final ObjectMapper objectMapper;
     
     @Autowired
-    public FruitController(FruitServiceInterface fruitService) {
+    public FruitController(FruitServiceInterface fruitService, ObjectMapper objectMapper) {
         this.fruitService = fruitService;
+        this.objectMapper = objectMapper;
     }
     
     @GetMapping
@@ -34,23 +49,56 @@ public class FruitController {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list of fruits"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Fruit>> getAllFruits() {
-        List<Fruit> fruits = fruitService.getAllFruits();
+    public ResponseEntity<List<FruitView>> getAllFruits() {
+        List<FruitView> fruits = fruitService.getAllFruits();
         return ResponseEntity.ok(fruits);
     }
     
+    @GetMapping("/page")
+    @Operation(summary = "Get fruits page by page", description = "Keyset-paginated listing ordered by ID. Pass nextCursor from the previous response as cursor to get the next page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of fruits"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    public ResponseEntity<CursorPage<FruitView>> getFruitsPage(
+            @Parameter(description = "Continuation token from the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, capped by farm.pagination.max-page-size")
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(fruitService.getFruitsPage(cursor, size));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search fruits", description = "Ranked substring search by name or color (prefix match for terms shorter than 3 characters)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved matching fruits"),
+            @ApiResponse(responseCode = "400", description = "Empty query or unknown field")
+    })
+    public ResponseEntity<List<FruitView>> searchFruits(
+            @Parameter(description = "Search term", required = true)
+            @RequestParam(name = "q") String query,
+            @Parameter(description = "Field to search: 'name' or 'color'")
+            @RequestParam(name = "field", defaultValue = "name") String field,
+            @Parameter(description = "Maximum number of results")
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        if (query.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(fruitService.searchFruits(query, field, limit));
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get fruit by ID", description = "Retrieve a specific fruit by its ID")
+    @Operation(summary = "Get fruit by ID", description = "Retrieve a specific fruit by its ID; the ETag carries its version for If-Match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved fruit"),
             @ApiResponse(responseCode = "404", description = "Fruit not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Fruit> getFruitById(
+    public ResponseEntity<FruitView> getFruitById(
             @Parameter(description = "Fruit ID", required = true)
             @PathVariable Long id) {
-        Optional<Fruit> fruit = fruitService.getFruitById(id);
-        return fruit.map(ResponseEntity::ok)
+        Optional<FruitView> fruit = fruitService.getFruitById(id);
+        return fruit.map(view -> ResponseEntity.ok().eTag(EntityVersionTags.etag(view.getVersion())).body(view))
                 .orElse(ResponseEntity.notFound().build());
     }
     
@@ -61,32 +109,60 @@ public class FruitController {
             @ApiResponse(responseCode = "400", description = "Invalid input data or farm not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Fruit> createFruit(
+    public ResponseEntity<FruitView> createFruit(
             @Parameter(description = "Fruit details", required = true)
             @Valid @RequestBody Fruit fruit,
             @Parameter(description = "Farm ID to assign the fruit to", required = true)
             @RequestParam Long farmId) {
         Fruit createdFruit = fruitService.createFruit(fruit, farmId);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdFruit);
+        return ResponseEntity.status(HttpStatus.CREATED).body(FruitView.of(createdFruit));
     }
     
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            BinaryFormatConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @Operation(summary = "Create fruits in bulk", description = "Create up to farm.batch.max-items fruits from a JSON, Smile or CBOR array; each item carries its farmId. Invalid items are reported by index")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see errors for rejected items"),
+            @ApiResponse(responseCode = "400", description = "Malformed body or batch too large")
+    })
+    public ResponseEntity<BatchResultDTO> createFruitsBatch(
+            @Parameter(description = "Fruits to create", required = true)
+            @RequestBody List<ProduceBatchItem> items) {
+        return ResponseEntity.ok(fruitService.createFruits(items));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Create fruits in bulk from NDJSON", description = "Same as the JSON variant, one item per line")
+    public ResponseEntity<BatchResultDTO> createFruitsBatchNdjson(InputStream body) throws IOException {
+        List<ProduceBatchItem> items = objectMapper.readerFor(ProduceBatchItem.class)
+                .<ProduceBatchItem>readValues(body)
+                .readAll();
+        return ResponseEntity.ok(fruitService.createFruits(items));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update fruit", description = "Update an existing fruit and optionally change its farm")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Fruit updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input data or farm not found"),
             @ApiResponse(responseCode = "404", description = "Fruit not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent updates kept conflicting"),
+            @ApiResponse(responseCode = "412", description = "Fruit changed since the If-Match version"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Fruit> updateFruit(
+    public ResponseEntity<FruitView> updateFruit(
             @Parameter(description = "Fruit ID", required = true)
             @PathVariable Long id,
             @Parameter(description = "Updated fruit details", required = true)
             @Valid @RequestBody Fruit fruitDetails,
             @Parameter(description = "Farm ID to assign the fruit to", required = true)
-            @RequestParam Long farmId) {
-        Fruit updatedFruit = fruitService.updateFruit(id, fruitDetails, farmId);
-        return ResponseEntity.ok(updatedFruit);
+            @RequestParam Long farmId,
+            @Parameter(description = "ETag from a previous read; the update is rejected if the fruit changed since")
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Fruit updatedFruit = fruitService.updateFruit(id, fruitDetails, farmId, EntityVersionTags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(EntityVersionTags.etag(updatedFruit.getVersion()))
+                .body(FruitView.of(updatedFruit));
     }
     
     @DeleteMapping("/{id}")
@@ -109,28 +185,59 @@ public class FruitController {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved fruits for the farm"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Fruit>> getFruitsByFarmId(
+    public ResponseEntity<List<FruitView>> getFruitsByFarmId(
             @Parameter(description = "Farm ID", required = true)
             @PathVariable Long farmId) {
-        List<Fruit> fruits = fruitService.getFruitsByFarmId(farmId);
+        List<FruitView> fruits = fruitService.getFruitsByFarmId(farmId);
         return ResponseEntity.ok(fruits);
     }
     //2. Фильтрация фруктов по цвету
     @GetMapping("/filter")
-    public ResponseEntity<List<Fruit>> filterFruits(@RequestParam(name = "color", required = false) String color) {
+    public ResponseEntity<List<FruitView>> filterFruits(@RequestParam(name = "color", required = false) String color) {
         return ResponseEntity.ok(fruitService.filterFruitsByColor(color));
     }
+
+    @GetMapping("/weight")
+    @Operation(summary = "Get fruits by weight range", description = "Fruits heavier than minWeight and, if given, not heavier than maxWeight, sorted by weight")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved fruits"),
+            @ApiResponse(responseCode = "400", description = "Invalid weight range or sort order")
+    })
+    public ResponseEntity<List<FruitView>> getFruitsByWeight(
+            @RequestParam(name = "minWeight") Double minWeight,
+            @RequestParam(name = "maxWeight", required = false) Double maxWeight,
+            @Parameter(description = "Sort direction by weight: 'asc' or 'desc'")
+            @RequestParam(name = "order", defaultValue = "asc") String order) {
+        return ResponseEntity.ok(fruitService.getFruitsByWeight(minWeight, maxWeight, order));
+    }
 //4. Перемещение фрукта или овоща на другую ферму
     @PatchMapping("/{id}/move")
-    public ResponseEntity<Fruit> moveFruit(
+    public ResponseEntity<FruitView> moveFruit(
             @PathVariable(name = "id") Long fruitId,
-            @RequestParam(name = "farmId") Long farmId) {
+            @RequestParam(name = "farmId") Long farmId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return ResponseEntity.ok(fruitService.moveFruitToFarm(fruitId, farmId));
+            Fruit moved = fruitService.moveFruitToFarm(fruitId, farmId, EntityVersionTags.parseIfMatch(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(EntityVersionTags.etag(moved.getVersion()))
+                    .body(FruitView.of(moved));
         } catch (ResponseStatusException e) {
             return ResponseEntity.status(e.getStatusCode()).build();
         }
     }
+
+    @PatchMapping("/move")
+    @Operation(summary = "Move fruits in bulk", description = "Move fruits selected by ids or by a filter (sourceFarmId, color, minWeight, maxWeight) to targetFarmId with a single UPDATE")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Fruits moved, see moved for the affected row count"),
+            @ApiResponse(responseCode = "400", description = "Neither or both of ids and filter given, or invalid weight range"),
+            @ApiResponse(responseCode = "404", description = "Target farm not found")
+    })
+    public ResponseEntity<BulkMoveResultDTO> moveFruits(
+            @Parameter(description = "Selection and target farm", required = true)
+            @Valid @RequestBody BulkMoveRequest request) {
+        return ResponseEntity.ok(fruitService.moveFruits(request));
+    }
 //6.
     @DeleteMapping("/farm/{farmId}")
     public ResponseEntity<Void> deleteFruitsByFarm(@PathVariable(name = "farmId") Long farmId) {
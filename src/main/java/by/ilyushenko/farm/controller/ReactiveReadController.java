@@ -0,0 +1,61 @@
+package by.ilyushenko.farm.controller;
+
+import by.ilyushenko.farm.dto.FarmView;
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.dto.VegetableView;
+import by.ilyushenko.farm.repository.ReactiveReadRepository;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streaming read API next to the blocking controllers. Spring MVC subscribes to the
+ * returned Flux and writes NDJSON one element at a time, requesting the next row only
+ * after the previous one was written, so a slow client applies backpressure down to
+ * the R2DBC cursor and rows are never buffered as a whole list.
+ * <p>
+ * This is not non-blocking I/O: under Spring MVC each write is a blocking servlet
+ * write on the thread that emitted the element (an R2DBC/Reactor thread). A slow
+ * client therefore holds that thread instead of a request thread.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@Tag(name = "Reactive Read API", description = "NDJSON streams of farms, fruits and vegetables read through R2DBC")
+public class ReactiveReadController {
+
+    private final ReactiveReadRepository reactiveReadRepository;
+
+    @Autowired
+    public ReactiveReadController(ReactiveReadRepository reactiveReadRepository) {
+        this.reactiveReadRepository = reactiveReadRepository;
+    }
+
+    @GetMapping(value = "/farms", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream farms", description = "All farms ordered by ID as newline-delimited JSON")
+    public Flux<FarmView> streamFarms() {
+        return reactiveReadRepository.findAllFarms();
+    }
+
+    @GetMapping(value = "/fruits", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream fruits", description = "Fruits ordered by ID as newline-delimited JSON, optionally of one farm")
+    public Flux<FruitView> streamFruits(
+            @Parameter(description = "Only fruits of this farm")
+            @RequestParam(name = "farmId", required = false) Long farmId) {
+        return reactiveReadRepository.findFruits(farmId);
+    }
+
+    @GetMapping(value = "/vegetables", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream vegetables", description = "Vegetables ordered by ID as newline-delimited JSON, optionally of one farm")
+    public Flux<VegetableView> streamVegetables(
+            @Parameter(description = "Only vegetables of this farm")
+            @RequestParam(name = "farmId", required = false) Long farmId) {
+        return reactiveReadRepository.findVegetables(farmId);
+    }
+}
@@ -1,7 +1,15 @@
 package by.ilyushenko.farm.controller;
 
+import by.ilyushenko.farm.config.BinaryFormatConfig;
+import by.ilyushenko.farm.dto.BatchResultDTO;
+import by.ilyushenko.farm.dto.BulkMoveRequest;
+import by.ilyushenko.farm.dto.BulkMoveResultDTO;
+import by.ilyushenko.farm.dto.CursorPage;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.dto.VegetableView;
 import by.ilyushenko.farm.entity.Vegetable;
 import by.ilyushenko.farm.service.VegetableServiceInterface;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,10 +17,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,10 +35,12 @@ import java.util.Optional;
 public class VegetableController {
 
     private final VegetableServiceInterface vegetableService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public VegetableController(VegetableServiceInterface vegetableService) {
+    public VegetableController(VegetableServiceInterface vegetableService, ObjectMapper objectMapper) {
         this.vegetableService = vegetableService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -34,23 +49,56 @@ public class VegetableController {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list of vegetables"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Vegetable>> getAllVegetables() {
-        List<Vegetable> vegetables = vegetableService.getAllVegetables();
+    public ResponseEntity<List<VegetableView>> getAllVegetables() {
+        List<VegetableView> vegetables = vegetableService.getAllVegetables();
         return ResponseEntity.ok(vegetables);
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Get vegetables page by page", description = "Keyset-paginated listing ordered by ID. Pass nextCursor from the previous response as cursor to get the next page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of vegetables"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    public ResponseEntity<CursorPage<VegetableView>> getVegetablesPage(
+            @Parameter(description = "Continuation token from the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, capped by farm.pagination.max-page-size")
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(vegetableService.getVegetablesPage(cursor, size));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search vegetables", description = "Ranked substring search by name or color (prefix match for terms shorter than 3 characters)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved matching vegetables"),
+            @ApiResponse(responseCode = "400", description = "Empty query or unknown field")
+    })
+    public ResponseEntity<List<VegetableView>> searchVegetables(
+            @Parameter(description = "Search term", required = true)
+            @RequestParam(name = "q") String query,
+            @Parameter(description = "Field to search: 'name' or 'color'")
+            @RequestParam(name = "field", defaultValue = "name") String field,
+            @Parameter(description = "Maximum number of results")
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        if (query.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(vegetableService.searchVegetables(query, field, limit));
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get vegetable by ID", description = "Retrieve a specific vegetable by its ID")
+    @Operation(summary = "Get vegetable by ID", description = "Retrieve a specific vegetable by its ID; the ETag carries its version for If-Match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved vegetable"),
             @ApiResponse(responseCode = "404", description = "Vegetable not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Vegetable> getVegetableById(
+    public ResponseEntity<VegetableView> getVegetableById(
             @Parameter(description = "Vegetable ID", required = true)
             @PathVariable Long id) {
-        Optional<Vegetable> vegetable = vegetableService.getVegetableById(id);
-        return vegetable.map(ResponseEntity::ok)
+        Optional<VegetableView> vegetable = vegetableService.getVegetableById(id);
+        return vegetable.map(view -> ResponseEntity.ok().eTag(EntityVersionTags.etag(view.getVersion())).body(view))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -61,13 +109,35 @@ public class VegetableController {
             @ApiResponse(responseCode = "400", description = "Invalid input data or farm not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Vegetable> createVegetable(
+    public ResponseEntity<VegetableView> createVegetable(
             @Parameter(description = "Vegetable details", required = true)
             @Valid @RequestBody Vegetable vegetable,
             @Parameter(description = "Farm ID to assign the vegetable to", required = true)
             @RequestParam Long farmId) {
         Vegetable createdVegetable = vegetableService.createVegetable(vegetable, farmId);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdVegetable);
+        return ResponseEntity.status(HttpStatus.CREATED).body(VegetableView.of(createdVegetable));
+    }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            BinaryFormatConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @Operation(summary = "Create vegetables in bulk", description = "Create up to farm.batch.max-items vegetables from a JSON, Smile or CBOR array; each item carries its farmId. Invalid items are reported by index")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see errors for rejected items"),
+            @ApiResponse(responseCode = "400", description = "Malformed body or batch too large")
+    })
+    public ResponseEntity<BatchResultDTO> createVegetablesBatch(
+            @Parameter(description = "Vegetables to create", required = true)
+            @RequestBody List<ProduceBatchItem> items) {
+        return ResponseEntity.ok(vegetableService.createVegetables(items));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Create vegetables in bulk from NDJSON", description = "Same as the JSON variant, one item per line")
+    public ResponseEntity<BatchResultDTO> createVegetablesBatchNdjson(InputStream body) throws IOException {
+        List<ProduceBatchItem> items = objectMapper.readerFor(ProduceBatchItem.class)
+                .<ProduceBatchItem>readValues(body)
+                .readAll();
+        return ResponseEntity.ok(vegetableService.createVegetables(items));
     }
 
     @PutMapping("/{id}")
@@ -76,17 +146,23 @@ public class VegetableController {
             @ApiResponse(responseCode = "200", description = "Vegetable updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input data or farm not found"),
             @ApiResponse(responseCode = "404", description = "Vegetable not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent updates kept conflicting"),
+            @ApiResponse(responseCode = "412", description = "Vegetable changed since the If-Match version"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Vegetable> updateVegetable(
+    public ResponseEntity<VegetableView> updateVegetable(
             @Parameter(description = "Vegetable ID", required = true)
             @PathVariable Long id,
             @Parameter(description = "Updated vegetable details", required = true)
             @Valid @RequestBody Vegetable vegetableDetails,
             @Parameter(description = "Farm ID to assign the vegetable to", required = true)
-            @RequestParam Long farmId) {
-        Vegetable updatedVegetable = vegetableService.updateVegetable(id, vegetableDetails, farmId);
-        return ResponseEntity.ok(updatedVegetable);
+            @RequestParam Long farmId,
+            @Parameter(description = "ETag from a previous read; the update is rejected if the vegetable changed since")
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Vegetable updatedVegetable = vegetableService.updateVegetable(id, vegetableDetails, farmId, EntityVersionTags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(EntityVersionTags.etag(updatedVegetable.getVersion()))
+                .body(VegetableView.of(updatedVegetable));
     }
 
     @DeleteMapping("/{id}")
@@ -109,32 +185,54 @@ public class VegetableController {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved vegetables for the farm"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Vegetable>> getVegetablesByFarmId(
+    public ResponseEntity<List<VegetableView>> getVegetablesByFarmId(
             @Parameter(description = "Farm ID", required = true)
             @PathVariable Long farmId) {
-        List<Vegetable> vegetables = vegetableService.getVegetablesByFarmId(farmId);
+        List<VegetableView> vegetables = vegetableService.getVegetablesByFarmId(farmId);
         return ResponseEntity.ok(vegetables);
     }
 
     @GetMapping("/weight")
-    public ResponseEntity<List<Vegetable>> getVegetablesByWeight(@RequestParam(name = "minWeight") Integer minWeight) {
+    @Operation(summary = "Get vegetables by weight range", description = "Vegetables heavier than minWeight and, if given, not heavier than maxWeight, sorted by weight")
+    public ResponseEntity<List<VegetableView>> getVegetablesByWeight(
+            @RequestParam(name = "minWeight") Double minWeight,
+            @RequestParam(name = "maxWeight", required = false) Double maxWeight,
+            @Parameter(description = "Sort direction by weight: 'asc' or 'desc'")
+            @RequestParam(name = "order", defaultValue = "asc") String order) {
         try {
-            return ResponseEntity.ok(vegetableService.getVegetablesByMinWeight(minWeight));
+            return ResponseEntity.ok(vegetableService.getVegetablesByWeight(minWeight, maxWeight, order));
         } catch (ResponseStatusException e) {
             return ResponseEntity.status(e.getStatusCode()).build();
         }
     }
     //4. Перемещение фрукта или овоща на другую ферму
     @PatchMapping("/{id}/move")
-    public ResponseEntity<Vegetable> moveVegetable(
+    public ResponseEntity<VegetableView> moveVegetable(
             @PathVariable(name = "id") Long vegetableId,
-            @RequestParam(name = "farmId") Long farmId) {
+            @RequestParam(name = "farmId") Long farmId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return ResponseEntity.ok(vegetableService.moveVegetableToFarm(vegetableId, farmId));
+            Vegetable moved = vegetableService.moveVegetableToFarm(vegetableId, farmId, EntityVersionTags.parseIfMatch(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(EntityVersionTags.etag(moved.getVersion()))
+                    .body(VegetableView.of(moved));
         } catch (ResponseStatusException e) {
             return ResponseEntity.status(e.getStatusCode()).build();
         }
     }
+
+    @PatchMapping("/move")
+    @Operation(summary = "Move vegetables in bulk", description = "Move vegetables selected by ids or by a filter (sourceFarmId, color, minWeight, maxWeight) to targetFarmId with a single UPDATE")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Vegetables moved, see moved for the affected row count"),
+            @ApiResponse(responseCode = "400", description = "Neither or both of ids and filter given, or invalid weight range"),
+            @ApiResponse(responseCode = "404", description = "Target farm not found")
+    })
+    public ResponseEntity<BulkMoveResultDTO> moveVegetables(
+            @Parameter(description = "Selection and target farm", required = true)
+            @Valid @RequestBody BulkMoveRequest request) {
+        return ResponseEntity.ok(vegetableService.moveVegetables(request));
+    }
     //6.
     @DeleteMapping("/farm/{farmId}")
     public ResponseEntity<Void> deleteVegetablesByFarm(@PathVariable(name = "farmId") Long farmId) {
@@ -0,0 +1,52 @@
+package by.ilyushenko.farm.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchResultDTO {
+    private int received;
+    private int created;
+    private List<ItemError> errors = new ArrayList<>();
+
+    public BatchResultDTO(int received) {
+        this.received = received;
+    }
+
+    public void itemCreated() {
+        created++;
+    }
+
+    public void addError(int index, String message) {
+        errors.add(new ItemError(index, message));
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return errors.size();
+    }
+
+    public List<ItemError> getErrors() {
+        return errors;
+    }
+
+    public static class ItemError {
+        private int index;
+        private String message;
+
+        public ItemError(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public int getIndex() { return index; }
+
+        public String getMessage() { return message; }
+    }
+}
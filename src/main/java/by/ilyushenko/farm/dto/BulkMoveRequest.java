@@ -0,0 +1,86 @@
+package by.ilyushenko.farm.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.List;
+
+/**
+ * Selects produce either by explicit ids or by a filter (source farm, color,
+ * weight range) and names the farm it should be moved to.
+ */
+public class BulkMoveRequest {
+
+    private List<Long> ids;
+
+    private Long sourceFarmId;
+
+    private String color;
+
+    @Positive(message = "Minimum weight must be greater than 0")
+    private Double minWeight;
+
+    @Positive(message = "Maximum weight must be greater than 0")
+    private Double maxWeight;
+
+    @NotNull(message = "Target farm ID is required")
+    private Long targetFarmId;
+
+    public BulkMoveRequest() {}
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    public boolean hasFilter() {
+        return sourceFarmId != null || color != null || minWeight != null || maxWeight != null;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public Long getSourceFarmId() {
+        return sourceFarmId;
+    }
+
+    public void setSourceFarmId(Long sourceFarmId) {
+        this.sourceFarmId = sourceFarmId;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public Double getMinWeight() {
+        return minWeight;
+    }
+
+    public void setMinWeight(Double minWeight) {
+        this.minWeight = minWeight;
+    }
+
+    public Double getMaxWeight() {
+        return maxWeight;
+    }
+
+    public void setMaxWeight(Double maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    public Long getTargetFarmId() {
+        return targetFarmId;
+    }
+
+    public void setTargetFarmId(Long targetFarmId) {
+        this.targetFarmId = targetFarmId;
+    }
+}
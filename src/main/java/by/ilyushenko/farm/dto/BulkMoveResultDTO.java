@@ -0,0 +1,19 @@
+package by.ilyushenko.farm.dto;
+
+public class BulkMoveResultDTO {
+    private Long targetFarmId;
+    private int moved;
+
+    public BulkMoveResultDTO(Long targetFarmId, int moved) {
+        this.targetFarmId = targetFarmId;
+        this.moved = moved;
+    }
+
+    public Long getTargetFarmId() {
+        return targetFarmId;
+    }
+
+    public int getMoved() {
+        return moved;
+    }
+}
@@ -0,0 +1,49 @@
+package by.ilyushenko.farm.dto;
+
+import java.util.List;
+
+/**
+ * Farm with its vegetables and fruits, assembled from three projection queries
+ * (farms, vegetables, fruits) instead of fetch-joined entity collections.
+ */
+public class FarmInventoryView {
+    private Long id;
+    private String name;
+    private String location;
+    private Long version;
+    private List<VegetableView> vegetables;
+    private List<FruitView> fruits;
+
+    public FarmInventoryView(FarmView farm, List<VegetableView> vegetables, List<FruitView> fruits) {
+        this.id = farm.getId();
+        this.name = farm.getName();
+        this.location = farm.getLocation();
+        this.version = farm.getVersion();
+        this.vegetables = vegetables;
+        this.fruits = fruits;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public List<VegetableView> getVegetables() {
+        return vegetables;
+    }
+
+    public List<FruitView> getFruits() {
+        return fruits;
+    }
+}
@@ -5,16 +5,16 @@ public class FarmStatsDTO {
     private String farmName;
     private Long fruitCount;
     private Long vegetableCount;
-    private Long totalWeight;
+    private Double totalWeight;
 
-    public FarmStatsDTO(String farmName, Long fruitCount, Long vegetableCount, Long totalWeight) {
+    public FarmStatsDTO(String farmName, Long fruitCount, Long vegetableCount, Double totalWeight) {
         this.farmName = farmName;
         this.fruitCount = fruitCount;
         this.vegetableCount = vegetableCount;
         this.totalWeight = totalWeight;
     }
 
-    public FarmStatsDTO(Long farmId, String farmName, Long fruitCount, Long vegetableCount, Long totalWeight) {
+    public FarmStatsDTO(Long farmId, String farmName, Long fruitCount, Long vegetableCount, Double totalWeight) {
         this.farmId = farmId;
         this.farmName = farmName;
         this.fruitCount = fruitCount;
@@ -38,7 +38,7 @@ public class FarmStatsDTO {
         return vegetableCount;
     }
 
-    public Long getTotalWeight() {
+    public Double getTotalWeight() {
         return totalWeight;
     }
 
@@ -58,7 +58,7 @@ public class FarmStatsDTO {
         this.vegetableCount = vegetableCount;
     }
 
-    public void setTotalWeight(Long totalWeight) {
+    public void setTotalWeight(Double totalWeight) {
         this.totalWeight = totalWeight;
     }
 }
@@ -0,0 +1,41 @@
+package by.ilyushenko.farm.dto;
+
+import by.ilyushenko.farm.entity.Farm;
+
+/**
+ * Farm columns only, without the produce collections. {@code version} is the
+ * entity version to send back in {@code If-Match} when updating the farm.
+ */
+public class FarmView {
+    private Long id;
+    private String name;
+    private String location;
+    private Long version;
+
+    public FarmView(Long id, String name, String location, Long version) {
+        this.id = id;
+        this.name = name;
+        this.location = location;
+        this.version = version;
+    }
+
+    public static FarmView of(Farm farm) {
+        return new FarmView(farm.getId(), farm.getName(), farm.getLocation(), farm.getVersion());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
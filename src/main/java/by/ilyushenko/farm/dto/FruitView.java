@@ -0,0 +1,64 @@
+package by.ilyushenko.farm.dto;
+
+import by.ilyushenko.farm.entity.Farm;
+import by.ilyushenko.farm.entity.Fruit;
+
+/**
+ * Read model of a fruit, selected with a JPQL constructor expression so GET responses
+ * never serialize managed entities.
+ */
+public class FruitView {
+    private Long id;
+    private String name;
+    private String color;
+    private Double weight;
+    private Long version;
+    private Long farmId;
+    private String farmName;
+
+    public FruitView(Long id, String name, String color, Double weight, Long version,
+                     Long farmId, String farmName) {
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.weight = weight;
+        this.version = version;
+        this.farmId = farmId;
+        this.farmName = farmName;
+    }
+
+    // The farm must already be initialized (services load it with findById)
+    public static FruitView of(Fruit fruit) {
+        Farm farm = fruit.getFarm();
+        return new FruitView(fruit.getId(), fruit.getName(), fruit.getColor(), fruit.getWeight(),
+                fruit.getVersion(), farm.getId(), farm.getName());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Long getFarmId() {
+        return farmId;
+    }
+
+    public String getFarmName() {
+        return farmName;
+    }
+}
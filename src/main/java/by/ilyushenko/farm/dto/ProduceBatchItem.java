@@ -0,0 +1,64 @@
+package by.ilyushenko.farm.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+public class ProduceBatchItem {
+
+    @NotBlank(message = "Name is required")
+    @Size(min = 2, max = 50, message = "Name must be between 2 and 50 characters")
+    private String name;
+
+    @Size(max = 50, message = "Color must not exceed 50 characters")
+    private String color;
+
+    @NotNull(message = "Weight is required")
+    @Positive(message = "Weight must be greater than 0")
+    private Double weight;
+
+    @NotNull(message = "Farm ID is required")
+    private Long farmId;
+
+    public ProduceBatchItem() {}
+
+    public ProduceBatchItem(String name, String color, Double weight, Long farmId) {
+        this.name = name;
+        this.color = color;
+        this.weight = weight;
+        this.farmId = farmId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+
+    public Long getFarmId() {
+        return farmId;
+    }
+
+    public void setFarmId(Long farmId) {
+        this.farmId = farmId;
+    }
+}
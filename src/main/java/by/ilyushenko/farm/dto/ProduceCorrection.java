@@ -0,0 +1,81 @@
+package by.ilyushenko.farm.dto;
+
+import by.ilyushenko.farm.event.ProduceType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Partial update of a single fruit or vegetable; {@code null} fields are left unchanged.
+ */
+public class ProduceCorrection {
+
+    @NotNull(message = "Type is required")
+    private ProduceType type;
+
+    @NotNull(message = "ID is required")
+    private Long id;
+
+    @Size(min = 2, max = 50, message = "Name must be between 2 and 50 characters")
+    private String name;
+
+    @Size(max = 50, message = "Color must not exceed 50 characters")
+    private String color;
+
+    @Positive(message = "Weight must be greater than 0")
+    private Double weight;
+
+    public ProduceCorrection() {}
+
+    public ProduceCorrection(ProduceType type, Long id, String name, String color, Double weight) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.weight = weight;
+    }
+
+    public boolean hasChanges() {
+        return name != null || color != null || weight != null;
+    }
+
+    public ProduceType getType() {
+        return type;
+    }
+
+    public void setType(ProduceType type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+}
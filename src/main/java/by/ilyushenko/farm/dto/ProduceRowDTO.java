@@ -0,0 +1,40 @@
+package by.ilyushenko.farm.dto;
+
+/**
+ * Flat fruit/vegetable row used to (re)build in-memory indexes without loading entities.
+ */
+public class ProduceRowDTO {
+    private Long id;
+    private String name;
+    private String color;
+    private Double weight;
+    private Long farmId;
+
+    public ProduceRowDTO(Long id, String name, String color, Double weight, Long farmId) {
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.weight = weight;
+        this.farmId = farmId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public Long getFarmId() {
+        return farmId;
+    }
+}
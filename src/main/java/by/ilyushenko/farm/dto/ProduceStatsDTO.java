@@ -0,0 +1,29 @@
+package by.ilyushenko.farm.dto;
+
+public class ProduceStatsDTO {
+    private Long farmId;
+    private Long count;
+    private Double totalWeight;
+
+    public ProduceStatsDTO(Long farmId, Long count, Double totalWeight) {
+        this.farmId = farmId;
+        this.count = count;
+        this.totalWeight = totalWeight;
+    }
+
+    public static ProduceStatsDTO empty(Long farmId) {
+        return new ProduceStatsDTO(farmId, 0L, 0.0);
+    }
+
+    public Long getFarmId() {
+        return farmId;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public Double getTotalWeight() {
+        return totalWeight;
+    }
+}
@@ -0,0 +1,64 @@
+package by.ilyushenko.farm.dto;
+
+import by.ilyushenko.farm.entity.Farm;
+import by.ilyushenko.farm.entity.Vegetable;
+
+/**
+ * Read model of a vegetable, selected with a JPQL constructor expression so GET responses
+ * never serialize managed entities.
+ */
+public class VegetableView {
+    private Long id;
+    private String name;
+    private String color;
+    private Double weight;
+    private Long version;
+    private Long farmId;
+    private String farmName;
+
+    public VegetableView(Long id, String name, String color, Double weight, Long version,
+                         Long farmId, String farmName) {
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.weight = weight;
+        this.version = version;
+        this.farmId = farmId;
+        this.farmName = farmName;
+    }
+
+    // The farm must already be initialized (services load it with findById)
+    public static VegetableView of(Vegetable vegetable) {
+        Farm farm = vegetable.getFarm();
+        return new VegetableView(vegetable.getId(), vegetable.getName(), vegetable.getColor(), vegetable.getWeight(),
+                vegetable.getVersion(), farm.getId(), farm.getName());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Long getFarmId() {
+        return farmId;
+    }
+
+    public String getFarmName() {
+        return farmName;
+    }
+}
@@ -0,0 +1,43 @@
+package by.ilyushenko.farm.dto;
+
+public class WeightGroupDTO {
+    private String key;
+    private Long count;
+    private Double totalWeight;
+    private Double averageWeight;
+    private Double minWeight;
+    private Double maxWeight;
+
+    public WeightGroupDTO(String key, long count, double totalWeight, double minWeight, double maxWeight) {
+        this.key = key;
+        this.count = count;
+        this.totalWeight = totalWeight;
+        this.averageWeight = count == 0 ? 0.0 : totalWeight / count;
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public Double getTotalWeight() {
+        return totalWeight;
+    }
+
+    public Double getAverageWeight() {
+        return averageWeight;
+    }
+
+    public Double getMinWeight() {
+        return minWeight;
+    }
+
+    public Double getMaxWeight() {
+        return maxWeight;
+    }
+}
@@ -0,0 +1,21 @@
+package by.ilyushenko.farm.entity;
+
+/**
+ * Second-level cache region names; sizes are configured in {@code application.conf}.
+ */
+public final class CacheRegions {
+
+    public static final String FARMS = "farms";
+    public static final String FARM_FRUITS = "farm-fruits";
+    public static final String FARM_VEGETABLES = "farm-vegetables";
+    public static final String FRUITS = "fruits";
+    public static final String VEGETABLES = "vegetables";
+
+    public static final String[] ALL = {FARMS, FARM_FRUITS, FARM_VEGETABLES, FRUITS, VEGETABLES};
+
+    public static final String FARM_FRUITS_ROLE = "by.ilyushenko.farm.entity.Farm.fruits";
+    public static final String FARM_VEGETABLES_ROLE = "by.ilyushenko.farm.entity.Farm.vegetables";
+
+    private CacheRegions() {
+    }
+}
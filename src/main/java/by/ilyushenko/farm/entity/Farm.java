@@ -4,11 +4,17 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "farms")
+@Table(name = "farms", indexes = @Index(name = "idx_farms_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.FARMS)
 public class Farm {
     
     @Id
@@ -24,12 +30,23 @@ public class Farm {
     @Column(length = 255)
     private String location;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
+    // Перемещения продукции не должны конфликтовать на версии фермы: версия отражает только поля самой фермы
     @OneToMany(mappedBy = "farm", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.FARM_VEGETABLES)
+    @OptimisticLock(excluded = true)
     private List<Vegetable> vegetables = new ArrayList<>();
     
     @OneToMany(mappedBy = "farm", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.FARM_FRUITS)
+    @OptimisticLock(excluded = true)
     private List<Fruit> fruits = new ArrayList<>();
     
     // Constructors
@@ -65,6 +82,14 @@ public class Farm {
         this.location = location;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public List<Vegetable> getVegetables() {
         return vegetables;
     }
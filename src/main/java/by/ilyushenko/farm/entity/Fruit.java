@@ -6,13 +6,26 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "fruits")
+// (farm_id, color, weight) also serves farm_id-only lookups and the foreign key,
+// (color, weight) serves color filters with an optional weight condition
+@Table(name = "fruits", indexes = {
+        @Index(name = "idx_fruits_farm_color_weight", columnList = "farm_id, color, weight"),
+        @Index(name = "idx_fruits_color_weight", columnList = "color, weight"),
+        @Index(name = "idx_fruits_weight", columnList = "weight"),
+        @Index(name = "idx_fruits_name", columnList = "name")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.FRUITS)
 public class Fruit {
     
+    // Sequence ids with a pooled optimizer keep JDBC insert batching enabled
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fruit_seq")
+    @SequenceGenerator(name = "fruit_seq", sequenceName = "fruits_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Fruit name is required")
@@ -29,6 +42,10 @@ public class Fruit {
     @Column(nullable = false)
     private Double weight;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "farm_id", nullable = false)
     @JsonBackReference
@@ -77,6 +94,14 @@ public class Fruit {
         this.weight = weight;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public Farm getFarm() {
         return farm;
     }
@@ -0,0 +1,7 @@
+package by.ilyushenko.farm.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
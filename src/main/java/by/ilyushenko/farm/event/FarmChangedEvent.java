@@ -0,0 +1,43 @@
+package by.ilyushenko.farm.event;
+
+import by.ilyushenko.farm.entity.Farm;
+
+/**
+ * Published by {@code FarmService} for every farm mutation. Deleting a farm first
+ * deletes its produce in separately committed chunks, each announced with a
+ * {@link FarmProduceRemovedEvent}; the DELETED event follows once the farm row is gone.
+ */
+public class FarmChangedEvent {
+
+    private final ChangeType changeType;
+    private final Long farmId;
+    private final String name;
+    private final String location;
+
+    public FarmChangedEvent(ChangeType changeType, Long farmId, String name, String location) {
+        this.changeType = changeType;
+        this.farmId = farmId;
+        this.name = name;
+        this.location = location;
+    }
+
+    public static FarmChangedEvent of(ChangeType changeType, Farm farm) {
+        return new FarmChangedEvent(changeType, farm.getId(), farm.getName(), farm.getLocation());
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Long getFarmId() {
+        return farmId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+}
@@ -0,0 +1,25 @@
+package by.ilyushenko.farm.event;
+
+/**
+ * Published for each committed statement that deletes produce of a farm by farm id
+ * (the whole farm or one id-range chunk of it). All remaining rows of that type are
+ * on their way out, so listeners drop the farm's entries without re-reading anything.
+ */
+public class FarmProduceRemovedEvent {
+
+    private final ProduceType produceType;
+    private final Long farmId;
+
+    public FarmProduceRemovedEvent(ProduceType produceType, Long farmId) {
+        this.produceType = produceType;
+        this.farmId = farmId;
+    }
+
+    public ProduceType getProduceType() {
+        return produceType;
+    }
+
+    public Long getFarmId() {
+        return farmId;
+    }
+}
@@ -0,0 +1,27 @@
+package by.ilyushenko.farm.event;
+
+import java.util.Set;
+
+/**
+ * Published after set-based produce writes (batch inserts, bulk deletes) where
+ * per-item events would be too expensive. Listeners should re-read the produce
+ * of the given farms instead of applying individual changes.
+ */
+public class ProduceBulkChangedEvent {
+
+    private final ProduceType produceType;
+    private final Set<Long> farmIds;
+
+    public ProduceBulkChangedEvent(ProduceType produceType, Set<Long> farmIds) {
+        this.produceType = produceType;
+        this.farmIds = Set.copyOf(farmIds);
+    }
+
+    public ProduceType getProduceType() {
+        return produceType;
+    }
+
+    public Set<Long> getFarmIds() {
+        return farmIds;
+    }
+}
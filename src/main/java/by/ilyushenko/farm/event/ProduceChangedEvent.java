@@ -0,0 +1,74 @@
+package by.ilyushenko.farm.event;
+
+import by.ilyushenko.farm.entity.Fruit;
+import by.ilyushenko.farm.entity.Vegetable;
+
+/**
+ * Published by the produce services for a single fruit or vegetable mutation.
+ * {@code previousFarmId} differs from {@code farmId} when the item changed farms.
+ */
+public class ProduceChangedEvent {
+
+    private final ProduceType produceType;
+    private final ChangeType changeType;
+    private final Long id;
+    private final String name;
+    private final String color;
+    private final Double weight;
+    private final Long farmId;
+    private final Long previousFarmId;
+
+    public ProduceChangedEvent(ProduceType produceType, ChangeType changeType, Long id, String name,
+                               String color, Double weight, Long farmId, Long previousFarmId) {
+        this.produceType = produceType;
+        this.changeType = changeType;
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.weight = weight;
+        this.farmId = farmId;
+        this.previousFarmId = previousFarmId;
+    }
+
+    public static ProduceChangedEvent of(ChangeType changeType, Fruit fruit, Long previousFarmId) {
+        return new ProduceChangedEvent(ProduceType.FRUIT, changeType, fruit.getId(), fruit.getName(),
+                fruit.getColor(), fruit.getWeight(), fruit.getFarm().getId(), previousFarmId);
+    }
+
+    public static ProduceChangedEvent of(ChangeType changeType, Vegetable vegetable, Long previousFarmId) {
+        return new ProduceChangedEvent(ProduceType.VEGETABLE, changeType, vegetable.getId(), vegetable.getName(),
+                vegetable.getColor(), vegetable.getWeight(), vegetable.getFarm().getId(), previousFarmId);
+    }
+
+    public ProduceType getProduceType() {
+        return produceType;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public Long getFarmId() {
+        return farmId;
+    }
+
+    public Long getPreviousFarmId() {
+        return previousFarmId;
+    }
+}
@@ -0,0 +1,6 @@
+package by.ilyushenko.farm.event;
+
+public enum ProduceType {
+    FRUIT,
+    VEGETABLE
+}
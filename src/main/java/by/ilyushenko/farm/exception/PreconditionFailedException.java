@@ -0,0 +1,11 @@
+package by.ilyushenko.farm.exception;
+
+/**
+ * The entity version no longer matches the one the client sent in {@code If-Match}.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package by.ilyushenko.farm.exception;
+
+/**
+ * The write-behind buffer stayed full for the whole offer timeout.
+ */
+public class WriteBufferFullException extends RuntimeException {
+    
+    public WriteBufferFullException(String message) {
+        super(message);
+    }
+}
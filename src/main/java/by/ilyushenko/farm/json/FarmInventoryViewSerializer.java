@@ -0,0 +1,62 @@
+package by.ilyushenko.farm.json;
+
+import by.ilyushenko.farm.dto.FarmInventoryView;
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.dto.VegetableView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a {@link FarmInventoryView} with its produce lists. List elements go
+ * straight to the produce serializers, without a serializer lookup per element.
+ */
+public class FarmInventoryViewSerializer extends StdSerializer<FarmInventoryView> {
+
+    private final VegetableViewSerializer vegetableSerializer;
+    private final FruitViewSerializer fruitSerializer;
+
+    public FarmInventoryViewSerializer(VegetableViewSerializer vegetableSerializer,
+                                       FruitViewSerializer fruitSerializer) {
+        super(FarmInventoryView.class);
+        this.vegetableSerializer = vegetableSerializer;
+        this.fruitSerializer = fruitSerializer;
+    }
+
+    @Override
+    public void serialize(FarmInventoryView farm, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(farm);
+        JsonFields.writeNumber(gen, JsonFields.ID, farm.getId());
+        JsonFields.writeString(gen, JsonFields.NAME, farm.getName());
+        JsonFields.writeString(gen, JsonFields.LOCATION, farm.getLocation());
+        JsonFields.writeNumber(gen, JsonFields.VERSION, farm.getVersion());
+
+        gen.writeFieldName(JsonFields.VEGETABLES);
+        List<VegetableView> vegetables = farm.getVegetables();
+        if (vegetables == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(vegetables, vegetables.size());
+            for (VegetableView vegetable : vegetables) {
+                vegetableSerializer.serialize(vegetable, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+
+        gen.writeFieldName(JsonFields.FRUITS);
+        List<FruitView> fruits = farm.getFruits();
+        if (fruits == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(fruits, fruits.size());
+            for (FruitView fruit : fruits) {
+                fruitSerializer.serialize(fruit, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,25 @@
+package by.ilyushenko.farm.json;
+
+import by.ilyushenko.farm.dto.FarmInventoryView;
+import by.ilyushenko.farm.dto.FarmView;
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.dto.VegetableView;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Hand-written serializers for the farm and produce read models, used instead of
+ * bean introspection for list and inventory responses. The JSON is the same as
+ * the default mapping produces.
+ */
+public class FarmJsonModule extends SimpleModule {
+
+    public FarmJsonModule() {
+        super("farm-json");
+        FruitViewSerializer fruitSerializer = new FruitViewSerializer();
+        VegetableViewSerializer vegetableSerializer = new VegetableViewSerializer();
+        addSerializer(FruitView.class, fruitSerializer);
+        addSerializer(VegetableView.class, vegetableSerializer);
+        addSerializer(FarmView.class, new FarmViewSerializer());
+        addSerializer(FarmInventoryView.class, new FarmInventoryViewSerializer(vegetableSerializer, fruitSerializer));
+    }
+}
@@ -0,0 +1,28 @@
+package by.ilyushenko.farm.json;
+
+import by.ilyushenko.farm.dto.FarmView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link FarmView} field by field through its getters.
+ */
+public class FarmViewSerializer extends StdSerializer<FarmView> {
+
+    public FarmViewSerializer() {
+        super(FarmView.class);
+    }
+
+    @Override
+    public void serialize(FarmView farm, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(farm);
+        JsonFields.writeNumber(gen, JsonFields.ID, farm.getId());
+        JsonFields.writeString(gen, JsonFields.NAME, farm.getName());
+        JsonFields.writeString(gen, JsonFields.LOCATION, farm.getLocation());
+        JsonFields.writeNumber(gen, JsonFields.VERSION, farm.getVersion());
+        gen.writeEndObject();
+    }
+}
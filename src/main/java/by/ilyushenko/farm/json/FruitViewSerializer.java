@@ -0,0 +1,26 @@
+package by.ilyushenko.farm.json;
+
+import by.ilyushenko.farm.dto.FruitView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link FruitView} field by field through its getters.
+ */
+public class FruitViewSerializer extends StdSerializer<FruitView> {
+
+    public FruitViewSerializer() {
+        super(FruitView.class);
+    }
+
+    @Override
+    public void serialize(FruitView fruit, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(fruit);
+        JsonFields.writeProduce(gen, fruit.getId(), fruit.getName(), fruit.getColor(), fruit.getWeight(),
+                fruit.getVersion(), fruit.getFarmId(), fruit.getFarmName());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,71 @@
+package by.ilyushenko.farm.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+
+/**
+ * Field names shared by the view serializers, kept as {@link SerializedString}s
+ * so the generator copies their cached quoted UTF-8 bytes instead of encoding
+ * the name on every write.
+ */
+final class JsonFields {
+
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString NAME = new SerializedString("name");
+    static final SerializedString COLOR = new SerializedString("color");
+    static final SerializedString WEIGHT = new SerializedString("weight");
+    static final SerializedString VERSION = new SerializedString("version");
+    static final SerializedString FARM_ID = new SerializedString("farmId");
+    static final SerializedString FARM_NAME = new SerializedString("farmName");
+    static final SerializedString LOCATION = new SerializedString("location");
+    static final SerializedString VEGETABLES = new SerializedString("vegetables");
+    static final SerializedString FRUITS = new SerializedString("fruits");
+
+    private JsonFields() {
+    }
+
+    /**
+     * Fruit and vegetable views have the same shape; fields are written in
+     * declaration order, as bean introspection would.
+     */
+    static void writeProduce(JsonGenerator gen, Long id, String name, String color, Double weight,
+                             Long version, Long farmId, String farmName) throws IOException {
+        writeNumber(gen, ID, id);
+        writeString(gen, NAME, name);
+        writeString(gen, COLOR, color);
+        writeNumber(gen, WEIGHT, weight);
+        writeNumber(gen, VERSION, version);
+        writeNumber(gen, FARM_ID, farmId);
+        writeString(gen, FARM_NAME, farmName);
+    }
+
+    static void writeNumber(JsonGenerator gen, SerializableString field, Long value) throws IOException {
+        gen.writeFieldName(field);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.longValue());
+        }
+    }
+
+    static void writeNumber(JsonGenerator gen, SerializableString field, Double value) throws IOException {
+        gen.writeFieldName(field);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.doubleValue());
+        }
+    }
+
+    static void writeString(JsonGenerator gen, SerializableString field, String value) throws IOException {
+        gen.writeFieldName(field);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+}
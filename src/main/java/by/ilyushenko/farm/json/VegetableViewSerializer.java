@@ -0,0 +1,26 @@
+package by.ilyushenko.farm.json;
+
+import by.ilyushenko.farm.dto.VegetableView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link VegetableView} field by field through its getters.
+ */
+public class VegetableViewSerializer extends StdSerializer<VegetableView> {
+
+    public VegetableViewSerializer() {
+        super(VegetableView.class);
+    }
+
+    @Override
+    public void serialize(VegetableView vegetable, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(vegetable);
+        JsonFields.writeProduce(gen, vegetable.getId(), vegetable.getName(), vegetable.getColor(), vegetable.getWeight(),
+                vegetable.getVersion(), vegetable.getFarmId(), vegetable.getFarmName());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,51 @@
+package by.ilyushenko.farm.metrics;
+
+import by.ilyushenko.farm.service.FarmServiceInterface;
+import by.ilyushenko.farm.service.FruitServiceInterface;
+import by.ilyushenko.farm.service.VegetableServiceInterface;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Wraps the service beans with {@link ServiceTimingInterceptor} so every method
+ * of the service interfaces is recorded as a {@code farm.service} timer.
+ * The advisor is placed before the transactional one, so timings include commit.
+ */
+@Component
+public class ServiceMetricsPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+    private static final List<Class<?>> SERVICE_INTERFACES = List.of(
+            FarmServiceInterface.class, FruitServiceInterface.class, VegetableServiceInterface.class);
+
+    public ServiceMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.advisor = new DefaultPointcutAdvisor(new ServiceMethodPointcut(), new ServiceTimingInterceptor(meterRegistry));
+        setBeforeExistingAdvisors(true);
+    }
+
+    private static final class ServiceMethodPointcut extends StaticMethodMatcherPointcut {
+
+        ServiceMethodPointcut() {
+            setClassFilter(ClassFilter.of(clazz -> SERVICE_INTERFACES.stream().anyMatch(i -> i.isAssignableFrom(clazz))));
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            for (Class<?> serviceInterface : SERVICE_INTERFACES) {
+                if (serviceInterface.isAssignableFrom(targetClass)
+                        && ReflectionUtils.findMethod(serviceInterface, method.getName(), method.getParameterTypes()) != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package by.ilyushenko.farm.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records {@code farm.service{service, method, outcome}} timers. Percentiles and
+ * histograms are configured through {@code management.metrics.distribution.*}.
+ */
+class ServiceTimingInterceptor implements MethodInterceptor {
+
+    static final String METRIC_NAME = "farm.service";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    // Timer lookup by tags is comparatively expensive, so the timers are cached per method
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<Method, Timer> errorTimers = new ConcurrentHashMap<>();
+
+    ServiceTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            timer(successTimers, invocation, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable ex) {
+            timer(errorTimers, invocation, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+    }
+
+    private Timer timer(Map<Method, Timer> timers, MethodInvocation invocation, String outcome) {
+        return timers.computeIfAbsent(invocation.getMethod(), method -> Timer.builder(METRIC_NAME)
+                .tag("service", ClassUtils.getUserClass(invocation.getThis()).getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .description("Service method execution time")
+                .register(meterRegistry.getObject()));
+    }
+}
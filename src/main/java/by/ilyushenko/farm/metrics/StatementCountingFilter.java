@@ -0,0 +1,82 @@
+package by.ilyushenko.farm.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Records the number of SQL statements per API request ({@code farm.request.statements})
+ * and flags the same SELECT repeated at least {@code farm.metrics.n-plus-one-threshold}
+ * times within one request as a likely N+1 ({@code farm.request.n_plus_one}).
+ */
+@Component
+public class StatementCountingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementCountingFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+
+    @Autowired
+    public StatementCountingFilter(MeterRegistry meterRegistry,
+                                   @Value("${farm.metrics.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementCountingInspector.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            record(request, StatementCountingInspector.end());
+        }
+    }
+
+    private void record(HttpServletRequest request, Map<String, Integer> statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        int total = statements.values().stream().mapToInt(Integer::intValue).sum();
+
+        DistributionSummary.builder("farm.request.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .description("SQL statements executed per request")
+                .register(meterRegistry)
+                .record(total);
+
+        statements.forEach((sql, count) -> {
+            //1. Повторяющиеся вставки/обновления — это батчи, а не N+1
+            if (count >= nPlusOneThreshold && sql.regionMatches(true, 0, "select", 0, 6)) {
+                log.warn("Possible N+1 on {} {}: {} executions of [{}]", request.getMethod(), uri, count, sql);
+                Counter.builder("farm.request.n_plus_one")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .description("Requests that repeated the same SELECT above the N+1 threshold")
+                        .register(meterRegistry)
+                        .increment();
+            }
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package by.ilyushenko.farm.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts SQL statements per request thread. Hibernate instantiates it from
+ * {@code hibernate.session_factory.statement_inspector}; the counting window is
+ * opened and closed by {@link StatementCountingFilter}.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    private static final ThreadLocal<Map<String, Integer>> STATEMENTS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Map<String, Integer> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    static void begin() {
+        STATEMENTS.set(new HashMap<>());
+    }
+
+    static Map<String, Integer> end() {
+        Map<String, Integer> statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements == null ? Map.of() : statements;
+    }
+}
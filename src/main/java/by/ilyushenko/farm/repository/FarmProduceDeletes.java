@@ -0,0 +1,20 @@
+package by.ilyushenko.farm.repository;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+/**
+ * Set-based delete operations shared by the fruit and vegetable repositories,
+ * so {@link by.ilyushenko.farm.service.FarmProduceCleaner} can drive either one.
+ */
+public interface FarmProduceDeletes {
+
+    long countByFarmId(Long farmId);
+
+    List<Long> findIdsByFarmIdAfter(Long farmId, Long afterId, Limit limit);
+
+    int deleteByFarmId(Long farmId);
+
+    int deleteByFarmIdAndIdRange(Long farmId, Long afterId, Long lastId);
+}
@@ -1,26 +1,50 @@
 package by.ilyushenko.farm.repository;
 
+import by.ilyushenko.farm.dto.FarmView;
 import by.ilyushenko.farm.entity.Farm;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FarmRepository extends JpaRepository<Farm, Long> {
-    
+public interface FarmRepository extends JpaRepository<Farm, Long>, FarmRepositoryCustom {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Farm> findByName(String name);
-    
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Farm> findByLocationContainingIgnoreCase(String location);
-    
-    @Query("SELECT f FROM Farm f WHERE f.id = :id")
-    Optional<Farm> findByIdWithVegetablesAndFruits(@Param("id") Long id);
-    
-    @Query("SELECT f FROM Farm f")
-    List<Farm> findAllWithVegetablesAndFruits();
+
+    String VIEW_SELECT = "SELECT new by.ilyushenko.farm.dto.FarmView(f.id, f.name, f.location, f.version) FROM Farm f ";
+
+    @Query(VIEW_SELECT + "WHERE f.id = :id")
+    Optional<FarmView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW_SELECT + "ORDER BY f.id")
+    List<FarmView> findAllViews();
+
+    @Query(VIEW_SELECT + "WHERE f.id IN :ids")
+    List<FarmView> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(VIEW_SELECT + "WHERE f.id > :afterId ORDER BY f.id")
+    List<FarmView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT)
+    Slice<FarmView> findViewSlice(Pageable pageable);
 
     List<Farm> findByNameContainingIgnoreCase(String name);
+
+    @Query("SELECT f.id FROM Farm f WHERE f.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
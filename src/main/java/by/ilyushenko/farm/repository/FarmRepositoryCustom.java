@@ -0,0 +1,23 @@
+package by.ilyushenko.farm.repository;
+
+import by.ilyushenko.farm.dto.FarmSortedDTO;
+
+import java.util.List;
+
+public interface FarmRepositoryCustom {
+
+    /**
+     * Ranks farms by their fruit or vegetable count; counting, ordering and paging
+     * are done by the database. Rows are ordered by (count, id) in the requested
+     * direction. When {@code afterCount}/{@code afterId} are given the page starts
+     * right after that key (keyset pagination) and {@code offset} is ignored.
+     * <p>
+     * The count is computed per query, so the key can only be applied in {@code HAVING}:
+     * every page, keyset or not, still groups and counts all farms. The keyset spares
+     * sorting past skipped rows and keeps pages stable while counts change, but the
+     * cost of a page grows with the number of farms and produce rows.
+     */
+    List<FarmSortedDTO> rankFarms(boolean byFruits, boolean ascending,
+                                  Long afterCount, Long afterId,
+                                  int offset, int limit);
+}
@@ -0,0 +1,51 @@
+package by.ilyushenko.farm.repository;
+
+import by.ilyushenko.farm.dto.FarmSortedDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+class FarmRepositoryImpl implements FarmRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FarmSortedDTO> rankFarms(boolean byFruits, boolean ascending,
+                                         Long afterCount, Long afterId,
+                                         int offset, int limit) {
+        String joined = byFruits ? "f.fruits" : "f.vegetables";
+        String other = byFruits
+                ? "(SELECT COUNT(v) FROM Vegetable v WHERE v.farm = f)"
+                : "(SELECT COUNT(fr) FROM Fruit fr WHERE fr.farm = f)";
+        String fruitCount = byFruits ? "COUNT(p)" : other;
+        String vegetableCount = byFruits ? other : "COUNT(p)";
+        String direction = ascending ? "ASC" : "DESC";
+        String comparison = ascending ? ">" : "<";
+        boolean keyset = afterCount != null && afterId != null;
+
+        StringBuilder jpql = new StringBuilder()
+                .append("SELECT new by.ilyushenko.farm.dto.FarmSortedDTO(f.id, f.name, f.location, ")
+                .append(fruitCount).append(", ").append(vegetableCount).append(") ")
+                .append("FROM Farm f LEFT JOIN ").append(joined).append(" p ")
+                .append("GROUP BY f.id, f.name, f.location ");
+        if (keyset) {
+            // Фильтр по агрегату: группировка и подсчёт по-прежнему идут по всем фермам
+            jpql.append("HAVING COUNT(p) ").append(comparison).append(" :afterCount ")
+                    .append("OR (COUNT(p) = :afterCount AND f.id ").append(comparison).append(" :afterId) ");
+        }
+        jpql.append("ORDER BY COUNT(p) ").append(direction).append(", f.id ").append(direction);
+
+        TypedQuery<FarmSortedDTO> query = entityManager.createQuery(jpql.toString(), FarmSortedDTO.class)
+                .setMaxResults(limit);
+        if (keyset) {
+            query.setParameter("afterCount", afterCount)
+                    .setParameter("afterId", afterId);
+        } else {
+            query.setFirstResult(offset);
+        }
+        return query.getResultList();
+    }
+}
@@ -1,36 +1,132 @@
 package by.ilyushenko.farm.repository;
 
+import by.ilyushenko.farm.dto.ProduceRowDTO;
+import by.ilyushenko.farm.dto.ProduceStatsDTO;
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.entity.Farm;
 import by.ilyushenko.farm.entity.Fruit;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FruitRepository extends JpaRepository<Fruit, Long> {
-    
+public interface FruitRepository extends JpaRepository<Fruit, Long>, FarmProduceDeletes {
+
     List<Fruit> findByFarmId(Long farmId);
-    
-    List<Fruit> findByNameContainingIgnoreCase(String name);
-    
-    List<Fruit> findByColorContainingIgnoreCase(String color);
-    
-    @Query("SELECT f FROM Fruit f JOIN FETCH f.farm WHERE f.id = :id")
-    Optional<Fruit> findByIdWithFarm(@Param("id") Long id);
-    
-    @Query("SELECT f FROM Fruit f JOIN FETCH f.farm")
-    List<Fruit> findAllWithFarm();
-    
-    @Query("SELECT f FROM Fruit f JOIN FETCH f.farm WHERE f.farm.id = :farmId")
-    List<Fruit> findByFarmIdWithFarm(@Param("farmId") Long farmId);
-
-    List<Fruit> findByColor(String color);
+
+    String VIEW_SELECT = "SELECT new by.ilyushenko.farm.dto.FruitView(f.id, f.name, f.color, f.weight, f.version, fa.id, fa.name) " +
+            "FROM Fruit f JOIN f.farm fa ";
+
+    @Query(VIEW_SELECT + "WHERE f.id = :id")
+    Optional<FruitView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW_SELECT + "ORDER BY f.id")
+    List<FruitView> findAllViews();
+
+    @Query(VIEW_SELECT + "WHERE f.id > :afterId ORDER BY f.id")
+    List<FruitView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT + "WHERE fa.id = :farmId ORDER BY f.id")
+    List<FruitView> findViewsByFarmId(@Param("farmId") Long farmId);
+
+    @Query(VIEW_SELECT + "WHERE fa.id IN :farmIds ORDER BY f.id")
+    List<FruitView> findViewsByFarmIds(@Param("farmIds") Collection<Long> farmIds);
+
+    @Query(VIEW_SELECT + "WHERE f.id IN :ids")
+    List<FruitView> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(VIEW_SELECT + "WHERE LOWER(f.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY f.id")
+    List<FruitView> findViewsByNameContaining(@Param("name") String name);
+
+    @Query(VIEW_SELECT + "WHERE LOWER(f.color) LIKE LOWER(CONCAT('%', :color, '%')) ORDER BY f.id")
+    List<FruitView> findViewsByColorContaining(@Param("color") String color);
+
+    @Query(VIEW_SELECT + "WHERE f.color = :color ORDER BY f.id")
+    List<FruitView> findViewsByColor(@Param("color") String color);
+
+    // Upper bound is optional; ordering comes from the Sort argument
+    @Query(VIEW_SELECT + "WHERE f.weight > :minWeight AND (:maxWeight IS NULL OR f.weight <= :maxWeight)")
+    List<FruitView> findViewsByWeightRange(@Param("minWeight") Double minWeight, @Param("maxWeight") Double maxWeight,
+                                         Sort sort);
+
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceRowDTO(f.id, f.name, f.color, f.weight, f.farm.id) " +
+            "FROM Fruit f WHERE f.id > :afterId ORDER BY f.id")
+    List<ProduceRowDTO> findRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceRowDTO(f.id, f.name, f.color, f.weight, f.farm.id) " +
+            "FROM Fruit f WHERE f.farm.id IN :farmIds")
+    List<ProduceRowDTO> findRowsByFarmIds(@Param("farmIds") Collection<Long> farmIds);
+
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceRowDTO(f.id, f.name, f.color, f.weight, f.farm.id) " +
+            "FROM Fruit f WHERE f.id IN :ids")
+    List<ProduceRowDTO> findRowsByIds(@Param("ids") Collection<Long> ids);
 
     long countByFarmId(Long farmId);
 
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceStatsDTO(f.farm.id, COUNT(f), COALESCE(SUM(f.weight), 0.0)) " +
+            "FROM Fruit f WHERE f.farm.id = :farmId GROUP BY f.farm.id")
+    Optional<ProduceStatsDTO> getStatsByFarmId(@Param("farmId") Long farmId);
+
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceStatsDTO(f.farm.id, COUNT(f), COALESCE(SUM(f.weight), 0.0)) " +
+            "FROM Fruit f WHERE f.farm.id IN :farmIds GROUP BY f.farm.id")
+    List<ProduceStatsDTO> getStatsByFarmIds(@Param("farmIds") Collection<Long> farmIds);
+
+    @Query("SELECT DISTINCT f.farm.id FROM Fruit f WHERE f.farm <> :target AND f.id IN :ids")
+    List<Long> findFarmIdsByIds(@Param("ids") Collection<Long> ids, @Param("target") Farm target);
+
+    @Query("SELECT DISTINCT f.farm.id FROM Fruit f " +
+            "WHERE f.farm <> :target " +
+            "AND (:sourceFarmId IS NULL OR f.farm.id = :sourceFarmId) " +
+            "AND (:color IS NULL OR f.color = :color) " +
+            "AND (:minWeight IS NULL OR f.weight >= :minWeight) " +
+            "AND (:maxWeight IS NULL OR f.weight <= :maxWeight)")
+    List<Long> findFarmIdsByFilter(@Param("target") Farm target,
+                                   @Param("sourceFarmId") Long sourceFarmId,
+                                   @Param("color") String color,
+                                   @Param("minWeight") Double minWeight,
+                                   @Param("maxWeight") Double maxWeight);
+
+    // Bulk statements bypass the persistence context: flush pending changes first and
+    // clear afterwards. Hibernate invalidates the affected 2LC regions itself.
+    // The version is bumped by hand so concurrent entity updates of moved rows fail their version check.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Fruit f SET f.farm = :target, f.version = f.version + 1 WHERE f.farm <> :target AND f.id IN :ids")
+    int moveByIds(@Param("ids") Collection<Long> ids, @Param("target") Farm target);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Fruit f SET f.farm = :target, f.version = f.version + 1 " +
+            "WHERE f.farm <> :target " +
+            "AND (:sourceFarmId IS NULL OR f.farm.id = :sourceFarmId) " +
+            "AND (:color IS NULL OR f.color = :color) " +
+            "AND (:minWeight IS NULL OR f.weight >= :minWeight) " +
+            "AND (:maxWeight IS NULL OR f.weight <= :maxWeight)")
+    int moveByFilter(@Param("target") Farm target,
+                     @Param("sourceFarmId") Long sourceFarmId,
+                     @Param("color") String color,
+                     @Param("minWeight") Double minWeight,
+                     @Param("maxWeight") Double maxWeight);
+
+    @Query("SELECT f.id FROM Fruit f WHERE f.farm.id = :farmId AND f.id > :afterId ORDER BY f.id")
+    List<Long> findIdsByFarmIdAfter(@Param("farmId") Long farmId, @Param("afterId") Long afterId, Limit limit);
+
+    // Single DELETE statement; the derived variant loaded and removed every entity one by one
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Fruit f WHERE f.farm.id = :farmId")
+    int deleteByFarmId(@Param("farmId") Long farmId);
+
     @Transactional
-    void deleteByFarmId(Long farmId);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Fruit f WHERE f.farm.id = :farmId AND f.id > :afterId AND f.id <= :lastId")
+    int deleteByFarmIdAndIdRange(@Param("farmId") Long farmId, @Param("afterId") Long afterId,
+                                 @Param("lastId") Long lastId);
 }
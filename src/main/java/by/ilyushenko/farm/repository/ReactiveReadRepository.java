@@ -0,0 +1,74 @@
+package by.ilyushenko.farm.repository;
+
+import by.ilyushenko.farm.dto.FarmView;
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.dto.VegetableView;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking reads over R2DBC. Rows are emitted as they are demanded, so a
+ * slow consumer holds one R2DBC connection and a bounded buffer instead of a
+ * fully materialized result list.
+ */
+@Repository
+public class ReactiveReadRepository {
+
+    private static final String FRUIT_SELECT = "SELECT p.id, p.name, p.color, p.weight, p.version, p.farm_id, fa.name AS farm_name " +
+            "FROM fruits p JOIN farms fa ON fa.id = p.farm_id ";
+    private static final String VEGETABLE_SELECT = "SELECT p.id, p.name, p.color, p.weight, p.version, p.farm_id, fa.name AS farm_name " +
+            "FROM vegetables p JOIN farms fa ON fa.id = p.farm_id ";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveReadRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<FarmView> findAllFarms() {
+        return databaseClient.sql("SELECT id, name, location, version FROM farms ORDER BY id")
+                .map(row -> new FarmView(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("location", String.class), row.get("version", Long.class)))
+                .all();
+    }
+
+    public Flux<FruitView> findFruits(Long farmId) {
+        if (farmId == null) {
+            return databaseClient.sql(FRUIT_SELECT + "ORDER BY p.id")
+                    .map(ReactiveReadRepository::toFruit)
+                    .all();
+        }
+        return databaseClient.sql(FRUIT_SELECT + "WHERE p.farm_id = :farmId ORDER BY p.id")
+                .bind("farmId", farmId)
+                .map(ReactiveReadRepository::toFruit)
+                .all();
+    }
+
+    public Flux<VegetableView> findVegetables(Long farmId) {
+        if (farmId == null) {
+            return databaseClient.sql(VEGETABLE_SELECT + "ORDER BY p.id")
+                    .map(ReactiveReadRepository::toVegetable)
+                    .all();
+        }
+        return databaseClient.sql(VEGETABLE_SELECT + "WHERE p.farm_id = :farmId ORDER BY p.id")
+                .bind("farmId", farmId)
+                .map(ReactiveReadRepository::toVegetable)
+                .all();
+    }
+
+    private static FruitView toFruit(Readable row) {
+        return new FruitView(row.get("id", Long.class), row.get("name", String.class), row.get("color", String.class),
+                row.get("weight", Double.class), row.get("version", Long.class),
+                row.get("farm_id", Long.class), row.get("farm_name", String.class));
+    }
+
+    private static VegetableView toVegetable(Readable row) {
+        return new VegetableView(row.get("id", Long.class), row.get("name", String.class), row.get("color", String.class),
+                row.get("weight", Double.class), row.get("version", Long.class),
+                row.get("farm_id", Long.class), row.get("farm_name", String.class));
+    }
+}
@@ -1,38 +1,134 @@
 package by.ilyushenko.farm.repository;
 
+import by.ilyushenko.farm.dto.ProduceRowDTO;
+import by.ilyushenko.farm.dto.ProduceStatsDTO;
+import by.ilyushenko.farm.dto.VegetableView;
+import by.ilyushenko.farm.entity.Farm;
 import by.ilyushenko.farm.entity.Vegetable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface VegetableRepository extends JpaRepository<Vegetable, Long> {
-    
+public interface VegetableRepository extends JpaRepository<Vegetable, Long>, FarmProduceDeletes {
+
     List<Vegetable> findByFarmId(Long farmId);
-    
-    List<Vegetable> findByNameContainingIgnoreCase(String name);
-    
-    List<Vegetable> findByColorContainingIgnoreCase(String color);
-    
-    @Query("SELECT v FROM Vegetable v JOIN FETCH v.farm WHERE v.id = :id")
-    Optional<Vegetable> findByIdWithFarm(@Param("id") Long id);
-    
-    @Query("SELECT v FROM Vegetable v JOIN FETCH v.farm")
-    List<Vegetable> findAllWithFarm();
-    
-    @Query("SELECT v FROM Vegetable v JOIN FETCH v.farm WHERE v.farm.id = :farmId")
-    List<Vegetable> findByFarmIdWithFarm(@Param("farmId") Long farmId);
 
-    List<Vegetable> findByColorAndWeight(String color, Double weight);
+    String VIEW_SELECT = "SELECT new by.ilyushenko.farm.dto.VegetableView(v.id, v.name, v.color, v.weight, v.version, fa.id, fa.name) " +
+            "FROM Vegetable v JOIN v.farm fa ";
+
+    @Query(VIEW_SELECT + "WHERE v.id = :id")
+    Optional<VegetableView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW_SELECT + "ORDER BY v.id")
+    List<VegetableView> findAllViews();
+
+    @Query(VIEW_SELECT + "WHERE v.id > :afterId ORDER BY v.id")
+    List<VegetableView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT + "WHERE fa.id = :farmId ORDER BY v.id")
+    List<VegetableView> findViewsByFarmId(@Param("farmId") Long farmId);
+
+    @Query(VIEW_SELECT + "WHERE fa.id IN :farmIds ORDER BY v.id")
+    List<VegetableView> findViewsByFarmIds(@Param("farmIds") Collection<Long> farmIds);
+
+    @Query(VIEW_SELECT + "WHERE v.id IN :ids")
+    List<VegetableView> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(VIEW_SELECT + "WHERE LOWER(v.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY v.id")
+    List<VegetableView> findViewsByNameContaining(@Param("name") String name);
+
+    @Query(VIEW_SELECT + "WHERE LOWER(v.color) LIKE LOWER(CONCAT('%', :color, '%')) ORDER BY v.id")
+    List<VegetableView> findViewsByColorContaining(@Param("color") String color);
+
+    @Query(VIEW_SELECT + "WHERE v.color = :color ORDER BY v.id")
+    List<VegetableView> findViewsByColor(@Param("color") String color);
+
+    // Upper bound is optional; ordering comes from the Sort argument
+    @Query(VIEW_SELECT + "WHERE v.weight > :minWeight AND (:maxWeight IS NULL OR v.weight <= :maxWeight)")
+    List<VegetableView> findViewsByWeightRange(@Param("minWeight") Double minWeight, @Param("maxWeight") Double maxWeight,
+                                         Sort sort);
+
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceRowDTO(v.id, v.name, v.color, v.weight, v.farm.id) " +
+            "FROM Vegetable v WHERE v.id > :afterId ORDER BY v.id")
+    List<ProduceRowDTO> findRowsAfter(@Param("afterId") Long afterId, Limit limit);
 
-    List<Vegetable> findByWeightGreaterThan(Integer minWeight);
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceRowDTO(v.id, v.name, v.color, v.weight, v.farm.id) " +
+            "FROM Vegetable v WHERE v.farm.id IN :farmIds")
+    List<ProduceRowDTO> findRowsByFarmIds(@Param("farmIds") Collection<Long> farmIds);
+
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceRowDTO(v.id, v.name, v.color, v.weight, v.farm.id) " +
+            "FROM Vegetable v WHERE v.id IN :ids")
+    List<ProduceRowDTO> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    List<Vegetable> findByColorAndWeight(String color, Double weight);
 
     long countByFarmId(Long farmId);
 
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceStatsDTO(v.farm.id, COUNT(v), COALESCE(SUM(v.weight), 0.0)) " +
+            "FROM Vegetable v WHERE v.farm.id = :farmId GROUP BY v.farm.id")
+    Optional<ProduceStatsDTO> getStatsByFarmId(@Param("farmId") Long farmId);
+
+    @Query("SELECT new by.ilyushenko.farm.dto.ProduceStatsDTO(v.farm.id, COUNT(v), COALESCE(SUM(v.weight), 0.0)) " +
+            "FROM Vegetable v WHERE v.farm.id IN :farmIds GROUP BY v.farm.id")
+    List<ProduceStatsDTO> getStatsByFarmIds(@Param("farmIds") Collection<Long> farmIds);
+
+    @Query("SELECT DISTINCT v.farm.id FROM Vegetable v WHERE v.farm <> :target AND v.id IN :ids")
+    List<Long> findFarmIdsByIds(@Param("ids") Collection<Long> ids, @Param("target") Farm target);
+
+    @Query("SELECT DISTINCT v.farm.id FROM Vegetable v " +
+            "WHERE v.farm <> :target " +
+            "AND (:sourceFarmId IS NULL OR v.farm.id = :sourceFarmId) " +
+            "AND (:color IS NULL OR v.color = :color) " +
+            "AND (:minWeight IS NULL OR v.weight >= :minWeight) " +
+            "AND (:maxWeight IS NULL OR v.weight <= :maxWeight)")
+    List<Long> findFarmIdsByFilter(@Param("target") Farm target,
+                                   @Param("sourceFarmId") Long sourceFarmId,
+                                   @Param("color") String color,
+                                   @Param("minWeight") Double minWeight,
+                                   @Param("maxWeight") Double maxWeight);
+
+    // Bulk statements bypass the persistence context: flush pending changes first and
+    // clear afterwards. Hibernate invalidates the affected 2LC regions itself.
+    // The version is bumped by hand so concurrent entity updates of moved rows fail their version check.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Vegetable v SET v.farm = :target, v.version = v.version + 1 WHERE v.farm <> :target AND v.id IN :ids")
+    int moveByIds(@Param("ids") Collection<Long> ids, @Param("target") Farm target);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Vegetable v SET v.farm = :target, v.version = v.version + 1 " +
+            "WHERE v.farm <> :target " +
+            "AND (:sourceFarmId IS NULL OR v.farm.id = :sourceFarmId) " +
+            "AND (:color IS NULL OR v.color = :color) " +
+            "AND (:minWeight IS NULL OR v.weight >= :minWeight) " +
+            "AND (:maxWeight IS NULL OR v.weight <= :maxWeight)")
+    int moveByFilter(@Param("target") Farm target,
+                     @Param("sourceFarmId") Long sourceFarmId,
+                     @Param("color") String color,
+                     @Param("minWeight") Double minWeight,
+                     @Param("maxWeight") Double maxWeight);
+
+    @Query("SELECT v.id FROM Vegetable v WHERE v.farm.id = :farmId AND v.id > :afterId ORDER BY v.id")
+    List<Long> findIdsByFarmIdAfter(@Param("farmId") Long farmId, @Param("afterId") Long afterId, Limit limit);
+
+    // Single DELETE statement; the derived variant loaded and removed every entity one by one
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Vegetable v WHERE v.farm.id = :farmId")
+    int deleteByFarmId(@Param("farmId") Long farmId);
+
     @Transactional
-    void deleteByFarmId(Long farmId);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Vegetable v WHERE v.farm.id = :farmId AND v.id > :afterId AND v.id <= :lastId")
+    int deleteByFarmIdAndIdRange(@Param("farmId") Long farmId, @Param("afterId") Long afterId,
+                                 @Param("lastId") Long lastId);
 }
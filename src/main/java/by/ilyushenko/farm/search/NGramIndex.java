@@ -0,0 +1,220 @@
+package by.ilyushenko.farm.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over a single text field.
+ * <p>
+ * Queries of three or more characters are answered by intersecting the posting
+ * lists of their trigrams and verifying the substring match; shorter queries match
+ * value prefixes through a sorted value map. Results are ranked exact match first,
+ * then prefix, then word start, then any substring, shorter values first.
+ * Each document may belong to an owner (the farm of a fruit/vegetable) so all
+ * documents of an owner can be dropped at once.
+ */
+public class NGramIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> idsByValue = new TreeMap<>();
+    private final Map<Long, String> values = new HashMap<>();
+    private final Map<Long, Long> owners = new HashMap<>();
+    private final Map<Long, Set<Long>> idsByOwner = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long id, String value, Long ownerId) {
+        String normalized = normalize(value);
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            values.put(id, normalized);
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+            }
+            idsByValue.computeIfAbsent(normalized, v -> new HashSet<>()).add(id);
+            if (ownerId != null) {
+                owners.put(id, ownerId);
+                idsByOwner.computeIfAbsent(ownerId, o -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeByOwner(long ownerId) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> ids = idsByOwner.remove(ownerId);
+            if (ids != null) {
+                for (Long id : ids) {
+                    removeInternal(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            idsByValue.clear();
+            values.clear();
+            owners.clear();
+            idsByOwner.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return values.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} matching document ids, best match first.
+     */
+    public List<Long> search(String term, int limit) {
+        String query = normalize(term);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = query.length() < GRAM_LENGTH
+                    ? prefixCandidates(query)
+                    : gramCandidates(query);
+            List<Match> matches = new ArrayList<>();
+            for (Long id : candidates) {
+                String value = values.get(id);
+                if (value != null && value.contains(query)) {
+                    matches.add(new Match(id, rank(value, query), value.length()));
+                }
+            }
+            matches.sort(Match.ORDER);
+            return matches.stream()
+                    .limit(limit)
+                    .map(Match::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> prefixCandidates(String query) {
+        Set<Long> candidates = new LinkedHashSet<>();
+        idsByValue.subMap(query, true, query + Character.MAX_VALUE, true)
+                .values()
+                .forEach(candidates::addAll);
+        return candidates;
+    }
+
+    private Set<Long> gramCandidates(String query) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> candidates = new HashSet<>();
+        candidate:
+        for (Long id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue candidate;
+                }
+            }
+            candidates.add(id);
+        }
+        return candidates;
+    }
+
+    private void removeInternal(long id) {
+        String previous = values.remove(id);
+        if (previous != null) {
+            for (String gram : grams(previous)) {
+                removeFrom(postings, gram, id);
+            }
+            removeFrom(idsByValue, previous, id);
+        }
+        Long owner = owners.remove(id);
+        if (owner != null) {
+            removeFrom(idsByOwner, owner, id);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Long>> map, K key, long id) {
+        Set<Long> ids = map.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static int rank(String value, String query) {
+        if (value.equals(query)) {
+            return 0;
+        }
+        if (value.startsWith(query)) {
+            return 1;
+        }
+        int at = value.indexOf(query);
+        if (at > 0 && !Character.isLetterOrDigit(value.charAt(at - 1))) {
+            return 2;
+        }
+        return 3;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Match(long id, int rank, int length) {
+        static final Comparator<Match> ORDER = Comparator.comparingInt(Match::rank)
+                .thenComparingInt(Match::length)
+                .thenComparingLong(Match::id);
+    }
+}
@@ -0,0 +1,174 @@
+package by.ilyushenko.farm.search;
+
+import by.ilyushenko.farm.dto.FarmView;
+import by.ilyushenko.farm.dto.ProduceRowDTO;
+import by.ilyushenko.farm.event.ChangeType;
+import by.ilyushenko.farm.event.FarmChangedEvent;
+import by.ilyushenko.farm.event.FarmProduceRemovedEvent;
+import by.ilyushenko.farm.event.ProduceBulkChangedEvent;
+import by.ilyushenko.farm.event.ProduceChangedEvent;
+import by.ilyushenko.farm.event.ProduceType;
+import by.ilyushenko.farm.repository.FarmRepository;
+import by.ilyushenko.farm.repository.FruitRepository;
+import by.ilyushenko.farm.repository.VegetableRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Keeps the in-memory {@link NGramIndex}es for farm and produce search in sync with the
+ * database. The indexes are built once on startup, before the web server accepts
+ * requests, and then updated from committed service events. The bean opts out of
+ * lazy initialization: a lazily created singleton never gets
+ * {@code afterSingletonsInstantiated}, and the index would stay empty.
+ */
+@Service
+@Lazy(false)
+public class SearchIndexService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private final Map<SearchTarget, NGramIndex> indexes = new EnumMap<>(SearchTarget.class);
+    private final FarmRepository farmRepository;
+    private final FruitRepository fruitRepository;
+    private final VegetableRepository vegetableRepository;
+    private final int rebuildChunkSize;
+
+    @Autowired
+    public SearchIndexService(FarmRepository farmRepository,
+                              FruitRepository fruitRepository,
+                              VegetableRepository vegetableRepository,
+                              @Value("${farm.search.rebuild-chunk-size:5000}") int rebuildChunkSize) {
+        this.farmRepository = farmRepository;
+        this.fruitRepository = fruitRepository;
+        this.vegetableRepository = vegetableRepository;
+        this.rebuildChunkSize = rebuildChunkSize;
+        for (SearchTarget target : SearchTarget.values()) {
+            indexes.put(target, new NGramIndex());
+        }
+    }
+
+    public List<Long> search(SearchTarget target, String term, int limit) {
+        return indexes.get(target).search(term, limit);
+    }
+
+    public int size(SearchTarget target) {
+        return indexes.get(target).size();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        indexes.values().forEach(NGramIndex::clear);
+
+        long afterId = 0L;
+        List<FarmView> farms = farmRepository.findViewsAfter(afterId, Limit.of(rebuildChunkSize));
+        while (!farms.isEmpty()) {
+            farms.forEach(farm -> indexFarm(farm.getId(), farm.getName(), farm.getLocation()));
+            afterId = farms.get(farms.size() - 1).getId();
+            farms = farmRepository.findViewsAfter(afterId, Limit.of(rebuildChunkSize));
+        }
+        indexAllProduce(ProduceType.FRUIT, fruitRepository::findRowsAfter);
+        indexAllProduce(ProduceType.VEGETABLE, vegetableRepository::findRowsAfter);
+
+        log.info("Search index rebuilt in {} ms: {} farms, {} fruits, {} vegetables",
+                System.currentTimeMillis() - started,
+                size(SearchTarget.FARM_NAME), size(SearchTarget.FRUIT_NAME), size(SearchTarget.VEGETABLE_NAME));
+    }
+
+    @TransactionalEventListener
+    public void onFarmChanged(FarmChangedEvent event) {
+        if (event.getChangeType() == ChangeType.DELETED) {
+            indexes.get(SearchTarget.FARM_NAME).remove(event.getFarmId());
+            indexes.get(SearchTarget.FARM_LOCATION).remove(event.getFarmId());
+            for (ProduceType type : ProduceType.values()) {
+                nameIndex(type).removeByOwner(event.getFarmId());
+                colorIndex(type).removeByOwner(event.getFarmId());
+            }
+        } else {
+            indexFarm(event.getFarmId(), event.getName(), event.getLocation());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onProduceChanged(ProduceChangedEvent event) {
+        ProduceType type = event.getProduceType();
+        if (event.getChangeType() == ChangeType.DELETED) {
+            nameIndex(type).remove(event.getId());
+            colorIndex(type).remove(event.getId());
+        } else {
+            nameIndex(type).put(event.getId(), event.getName(), event.getFarmId());
+            colorIndex(type).put(event.getId(), event.getColor(), event.getFarmId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onFarmProduceRemoved(FarmProduceRemovedEvent event) {
+        nameIndex(event.getProduceType()).removeByOwner(event.getFarmId());
+        colorIndex(event.getProduceType()).removeByOwner(event.getFarmId());
+    }
+
+    @TransactionalEventListener
+    public void onProduceBulkChanged(ProduceBulkChangedEvent event) {
+        ProduceType type = event.getProduceType();
+        for (Long farmId : event.getFarmIds()) {
+            nameIndex(type).removeByOwner(farmId);
+            colorIndex(type).removeByOwner(farmId);
+        }
+        if (event.getFarmIds().isEmpty()) {
+            return;
+        }
+        List<ProduceRowDTO> rows = type == ProduceType.FRUIT
+                ? fruitRepository.findRowsByFarmIds(event.getFarmIds())
+                : vegetableRepository.findRowsByFarmIds(event.getFarmIds());
+        indexProduce(type, rows);
+    }
+
+    private void indexAllProduce(ProduceType type, BiFunction<Long, Limit, List<ProduceRowDTO>> chunkLoader) {
+        long afterId = 0L;
+        List<ProduceRowDTO> rows = chunkLoader.apply(afterId, Limit.of(rebuildChunkSize));
+        while (!rows.isEmpty()) {
+            indexProduce(type, rows);
+            afterId = rows.get(rows.size() - 1).getId();
+            rows = chunkLoader.apply(afterId, Limit.of(rebuildChunkSize));
+        }
+    }
+
+    private void indexProduce(ProduceType type, Collection<ProduceRowDTO> rows) {
+        NGramIndex names = nameIndex(type);
+        NGramIndex colors = colorIndex(type);
+        for (ProduceRowDTO row : rows) {
+            names.put(row.getId(), row.getName(), row.getFarmId());
+            colors.put(row.getId(), row.getColor(), row.getFarmId());
+        }
+    }
+
+    private void indexFarm(Long id, String name, String location) {
+        indexes.get(SearchTarget.FARM_NAME).put(id, name, null);
+        indexes.get(SearchTarget.FARM_LOCATION).put(id, location, null);
+    }
+
+    private NGramIndex nameIndex(ProduceType type) {
+        return indexes.get(type == ProduceType.FRUIT ? SearchTarget.FRUIT_NAME : SearchTarget.VEGETABLE_NAME);
+    }
+
+    private NGramIndex colorIndex(ProduceType type) {
+        return indexes.get(type == ProduceType.FRUIT ? SearchTarget.FRUIT_COLOR : SearchTarget.VEGETABLE_COLOR);
+    }
+}
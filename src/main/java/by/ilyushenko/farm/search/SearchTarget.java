@@ -0,0 +1,10 @@
+package by.ilyushenko.farm.search;
+
+public enum SearchTarget {
+    FARM_NAME,
+    FARM_LOCATION,
+    FRUIT_NAME,
+    FRUIT_COLOR,
+    VEGETABLE_NAME,
+    VEGETABLE_COLOR
+}
@@ -0,0 +1,58 @@
+package by.ilyushenko.farm.service;
+
+import by.ilyushenko.farm.entity.CacheRegions;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Evicts cached {@code Farm.fruits}/{@code Farm.vegetables} collections for write paths
+ * that change the owning farm of produce without going through the collections
+ * (moves, batch inserts, derived deletes). Entries are evicted immediately and once
+ * more after commit, so a reader that cached the old state in between cannot keep it.
+ */
+@Component
+public class FarmCollectionCache {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public FarmCollectionCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void evictFruits(Collection<Long> farmIds) {
+        evict(CacheRegions.FARM_FRUITS_ROLE, farmIds);
+    }
+
+    public void evictVegetables(Collection<Long> farmIds) {
+        evict(CacheRegions.FARM_VEGETABLES_ROLE, farmIds);
+    }
+
+    private void evict(String role, Collection<Long> farmIds) {
+        List<Long> ids = farmIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        Runnable eviction = () -> {
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            ids.forEach(id -> cache.evictCollectionData(role, id));
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package by.ilyushenko.farm.service;
+
+import by.ilyushenko.farm.event.FarmProduceRemovedEvent;
+import by.ilyushenko.farm.event.ProduceBulkChangedEvent;
+import by.ilyushenko.farm.event.ProduceType;
+import by.ilyushenko.farm.repository.FarmProduceDeletes;
+import by.ilyushenko.farm.repository.FruitRepository;
+import by.ilyushenko.farm.repository.VegetableRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Deletes all produce of a farm with set-based DELETE statements. Up to
+ * {@code farm.delete.chunk-size} rows go in one statement; larger farms are
+ * deleted in id-range chunks, one short transaction each, so row locks and the
+ * pool connection are held for one chunk at a time. Every transaction evicts
+ * the farm's cached collection and publishes a {@link FarmProduceRemovedEvent};
+ * its listeners drop the farm's entries without re-reading the rows that are
+ * still to be deleted. If a chunk fails, one {@link ProduceBulkChangedEvent}
+ * re-syncs the in-memory indexes with the rows that remain.
+ * <p>
+ * Callers should not hold a transaction of their own: chunks would join it and
+ * the whole delete would again commit (or roll back) at once.
+ */
+@Component
+public class FarmProduceCleaner {
+
+    private final FruitRepository fruitRepository;
+    private final VegetableRepository vegetableRepository;
+    private final FarmCollectionCache farmCollectionCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public FarmProduceCleaner(FruitRepository fruitRepository,
+                              VegetableRepository vegetableRepository,
+                              FarmCollectionCache farmCollectionCache,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${farm.delete.chunk-size:10000}") int chunkSize) {
+        this.fruitRepository = fruitRepository;
+        this.vegetableRepository = vegetableRepository;
+        this.farmCollectionCache = farmCollectionCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public int deleteFruits(Long farmId) {
+        return delete(fruitRepository, ProduceType.FRUIT, farmId);
+    }
+
+    public int deleteVegetables(Long farmId) {
+        return delete(vegetableRepository, ProduceType.VEGETABLE, farmId);
+    }
+
+    private int delete(FarmProduceDeletes repository, ProduceType type, Long farmId) {
+        if (repository.countByFarmId(farmId) <= chunkSize) {
+            return inTransaction(type, farmId, () -> repository.deleteByFarmId(farmId));
+        }
+        int deleted = 0;
+        long afterId = 0L;
+        try {
+            List<Long> ids = repository.findIdsByFarmIdAfter(farmId, afterId, Limit.of(chunkSize));
+            while (!ids.isEmpty()) {
+                long from = afterId;
+                long to = ids.get(ids.size() - 1);
+                deleted += inTransaction(type, farmId, () -> repository.deleteByFarmIdAndIdRange(farmId, from, to));
+                afterId = to;
+                ids = repository.findIdsByFarmIdAfter(farmId, afterId, Limit.of(chunkSize));
+            }
+        } catch (RuntimeException e) {
+            // Индексы уже забыли всю ферму, а часть строк осталась: перечитываем их один раз
+            transactionTemplate.executeWithoutResult(status ->
+                    eventPublisher.publishEvent(new ProduceBulkChangedEvent(type, Set.of(farmId))));
+            throw e;
+        }
+        return deleted;
+    }
+
+    private int inTransaction(ProduceType type, Long farmId, IntSupplier statement) {
+        Integer count = transactionTemplate.execute(status -> {
+            int rows = statement.getAsInt();
+            if (type == ProduceType.FRUIT) {
+                farmCollectionCache.evictFruits(List.of(farmId));
+            } else {
+                farmCollectionCache.evictVegetables(List.of(farmId));
+            }
+            eventPublisher.publishEvent(new FarmProduceRemovedEvent(type, farmId));
+            return rows;
+        });
+        return count == null ? 0 : count;
+    }
+}
@@ -1,64 +1,175 @@
 package by.ilyushenko.farm.service;
 
+import by.ilyushenko.farm.config.PaginationProperties;
 import by.ilyushenko.farm.dto.FarmDto;
+import by.ilyushenko.farm.dto.FarmInventoryView;
 import by.ilyushenko.farm.dto.FarmSortedDTO;
 import by.ilyushenko.farm.dto.FarmStatsDTO;
+import by.ilyushenko.farm.dto.FarmView;
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.dto.ProduceStatsDTO;
+import by.ilyushenko.farm.dto.VegetableView;
 import by.ilyushenko.farm.entity.Farm;
-import by.ilyushenko.farm.entity.Fruit;
-import by.ilyushenko.farm.entity.Vegetable;
+import by.ilyushenko.farm.event.ChangeType;
+import by.ilyushenko.farm.event.FarmChangedEvent;
 import by.ilyushenko.farm.exception.FarmNotFoundException;
+import by.ilyushenko.farm.exception.PreconditionFailedException;
 import by.ilyushenko.farm.exception.ResourceNotFoundException;
 import by.ilyushenko.farm.repository.FarmRepository;
+import by.ilyushenko.farm.repository.FruitRepository;
+import by.ilyushenko.farm.repository.VegetableRepository;
+import by.ilyushenko.farm.search.SearchIndexService;
+import by.ilyushenko.farm.search.SearchTarget;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class FarmService implements FarmServiceInterface {
 
+    private static final Logger log = LoggerFactory.getLogger(FarmService.class);
+
     private final FarmRepository farmRepository;
     private final FruitRepository fruitRepository;
     private final VegetableRepository vegetableRepository;
+    private final ObjectMapper objectMapper;
+    private final SearchIndexService searchIndexService;
+    private final PaginationProperties paginationProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FarmProduceCleaner farmProduceCleaner;
+    private final FarmCollectionCache farmCollectionCache;
+    private final OptimisticRetry optimisticRetry;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTransaction;
+    private final int exportChunkSize;
 
     @Autowired
-    public FarmService(FarmRepository farmRepository) {
+    public FarmService(FarmRepository farmRepository,
+                       FruitRepository fruitRepository,
+                       VegetableRepository vegetableRepository,
+                       ObjectMapper objectMapper,
+                       SearchIndexService searchIndexService,
+                       PaginationProperties paginationProperties,
+                       ApplicationEventPublisher eventPublisher,
+                       FarmProduceCleaner farmProduceCleaner,
+                       FarmCollectionCache farmCollectionCache,
+                       OptimisticRetry optimisticRetry,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${farm.export.chunk-size:500}") int exportChunkSize) {
         this.farmRepository = farmRepository;
+        this.fruitRepository = fruitRepository;
+        this.vegetableRepository = vegetableRepository;
+        this.objectMapper = objectMapper;
+        this.searchIndexService = searchIndexService;
+        this.paginationProperties = paginationProperties;
+        this.eventPublisher = eventPublisher;
+        this.farmProduceCleaner = farmProduceCleaner;
+        this.farmCollectionCache = farmCollectionCache;
+        this.optimisticRetry = optimisticRetry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.exportChunkSize = exportChunkSize;
     }
 
     @Transactional(readOnly = true)
-    public List<Farm> getAllFarms() {
-        return farmRepository.findAllWithVegetablesAndFruits();
+    public List<FarmInventoryView> getAllFarms() {
+        return toInventory(farmRepository.findAllViews(),
+                vegetableRepository.findAllViews(),
+                fruitRepository.findAllViews());
     }
 
     @Transactional(readOnly = true)
-    public Optional<Farm> getFarmById(Long id) {
-        return farmRepository.findByIdWithVegetablesAndFruits(id);
+    public Optional<FarmInventoryView> getFarmById(Long id) {
+        return farmRepository.findViewById(id)
+                .map(farm -> new FarmInventoryView(farm,
+                        vegetableRepository.findViewsByFarmId(id),
+                        fruitRepository.findViewsByFarmId(id)));
+    }
+
+    private static List<FarmInventoryView> toInventory(List<FarmView> farms,
+                                                       List<VegetableView> vegetables,
+                                                       List<FruitView> fruits) {
+        Map<Long, List<VegetableView>> vegetablesByFarm = vegetables.stream()
+                .collect(Collectors.groupingBy(VegetableView::getFarmId));
+        Map<Long, List<FruitView>> fruitsByFarm = fruits.stream()
+                .collect(Collectors.groupingBy(FruitView::getFarmId));
+        return farms.stream()
+                .map(farm -> new FarmInventoryView(farm,
+                        vegetablesByFarm.getOrDefault(farm.getId(), List.of()),
+                        fruitsByFarm.getOrDefault(farm.getId(), List.of())))
+                .toList();
     }
 
     public Farm createFarm(Farm farm) {
-        return farmRepository.save(farm);
+        Farm savedFarm = farmRepository.save(farm);
+        eventPublisher.publishEvent(FarmChangedEvent.of(ChangeType.CREATED, savedFarm));
+        return savedFarm;
+    }
+
+    // Имя и адрес перезаписываются целиком, поэтому при конфликте версий достаточно повторить запись
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Farm updateFarm(Long id, Farm farmDetails, Long expectedVersion) {
+        return optimisticRetry.execute(() -> doUpdateFarm(id, farmDetails, expectedVersion));
     }
 
-    public Farm updateFarm(Long id, Farm farmDetails) {
+    private Farm doUpdateFarm(Long id, Farm farmDetails, Long expectedVersion) {
         Farm farm = farmRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Farm not found with id: " + id));
+        checkVersion(farm, expectedVersion);
 
         farm.setName(farmDetails.getName());
         farm.setLocation(farmDetails.getLocation());
 
-        return farmRepository.save(farm);
+        Farm savedFarm = farmRepository.save(farm);
+        eventPublisher.publishEvent(FarmChangedEvent.of(ChangeType.UPDATED, savedFarm));
+        return savedFarm;
     }
 
+    private static void checkVersion(Farm farm, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(farm.getVersion())) {
+            throw new PreconditionFailedException("Farm " + farm.getId() + " has version " + farm.getVersion()
+                    + ", expected " + expectedVersion);
+        }
+    }
+
+    // Без общей транзакции: проверка, чанки продукции и удаление фермы идут отдельными короткими транзакциями
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void deleteFarm(Long id) {
         Farm farm = farmRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Farm not found with id: " + id));
 
-        farmRepository.delete(farm);
+        // продукция удаляется массовыми DELETE: каскад через orphanRemoval загружал и удалял каждую запись по одной
+        farmProduceCleaner.deleteFruits(id);
+        farmProduceCleaner.deleteVegetables(id);
+        // ферма загружается заново в своей транзакции, её коллекции к этому моменту уже пусты
+        transactionTemplate.executeWithoutResult(status -> {
+            farmRepository.deleteById(id);
+            farmCollectionCache.evictFruits(List.of(id));
+            farmCollectionCache.evictVegetables(List.of(id));
+            eventPublisher.publishEvent(FarmChangedEvent.of(ChangeType.DELETED, farm));
+        });
     }
 
     @Transactional(readOnly = true)
@@ -86,53 +197,157 @@ public class FarmService implements FarmServiceInterface {
         }
     }
 
+    @Transactional(readOnly = true)
     public FarmDto getFarmWithFruitCount(Long id) {
-        Farm farm = farmRepository.findByIdWithVegetablesAndFruits(id)
+        FarmView farm = farmRepository.findViewById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("fa" +
                         "Farm not found with id: " + id));
-        int fruitCount = farm.getFruits().size();
+        int fruitCount = Math.toIntExact(fruitRepository.countByFarmId(id));
         FarmDto farmDto = new FarmDto(farm.getName(), fruitCount);
         return farmDto;
     }
 
     //1. Поиск ферм по названию (частичный поиск)
-    public List<Farm> searchFarmsByName(String searchTerm) {
-        return farmRepository.findByNameContainingIgnoreCase(searchTerm);
+    @Transactional(readOnly = true)
+    public List<FarmView> searchFarmsByName(String searchTerm, Integer limit) {
+        return searchFarms(SearchTarget.FARM_NAME, searchTerm, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FarmView> searchFarmsByLocation(String searchTerm, Integer limit) {
+        return searchFarms(SearchTarget.FARM_LOCATION, searchTerm, limit);
+    }
+
+    private List<FarmView> searchFarms(SearchTarget target, String searchTerm, Integer limit) {
+        List<Long> ids = searchIndexService.search(target, searchTerm, paginationProperties.resolvePageSize(limit));
+        Map<Long, FarmView> byId = farmRepository.findViewsByIds(ids).stream()
+                .collect(Collectors.toMap(FarmView::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     //5. Получение статистики по ферме
+    @Transactional(readOnly = true)
     public FarmStatsDTO getFarmStats(Long farmId) {
-        Farm farm = farmRepository.findById(farmId)
+        FarmView farm = farmRepository.findViewById(farmId)
                 .orElseThrow(() -> new ResourceNotFoundException("Farm not found with id: " + farmId));
-        int fruitCount = farm.getFruits().size();
-        int vegetableCount = farm.getVegetables().size();
-        double totalWeight = farm.getFruits().stream().mapToDouble(Fruit::getWeight).sum() +
-                farm.getVegetables().stream().mapToDouble(Vegetable::getWeight).sum();
-        return new FarmStatsDTO(farmId, farm.getName(), fruitCount, vegetableCount, totalWeight);
+        ProduceStatsDTO fruits = fruitRepository.getStatsByFarmId(farmId)
+                .orElse(ProduceStatsDTO.empty(farmId));
+        ProduceStatsDTO vegetables = vegetableRepository.getStatsByFarmId(farmId)
+                .orElse(ProduceStatsDTO.empty(farmId));
+        return toFarmStats(farm, fruits, vegetables);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FarmStatsDTO> getAllFarmStats(Pageable pageable) {
+        List<FarmView> farms = farmRepository.findViewSlice(pageable).getContent();
+        if (farms.isEmpty()) {
+            return List.of();
+        }
+        List<Long> farmIds = farms.stream().map(FarmView::getId).toList();
+        Map<Long, ProduceStatsDTO> fruits = fruitRepository.getStatsByFarmIds(farmIds).stream()
+                .collect(Collectors.toMap(ProduceStatsDTO::getFarmId, Function.identity()));
+        Map<Long, ProduceStatsDTO> vegetables = vegetableRepository.getStatsByFarmIds(farmIds).stream()
+                .collect(Collectors.toMap(ProduceStatsDTO::getFarmId, Function.identity()));
+        return farms.stream()
+                .map(farm -> toFarmStats(farm,
+                        fruits.getOrDefault(farm.getId(), ProduceStatsDTO.empty(farm.getId())),
+                        vegetables.getOrDefault(farm.getId(), ProduceStatsDTO.empty(farm.getId()))))
+                .toList();
+    }
+
+    private FarmStatsDTO toFarmStats(FarmView farm, ProduceStatsDTO fruits, ProduceStatsDTO vegetables) {
+        return new FarmStatsDTO(farm.getId(), farm.getName(),
+                fruits.getCount(), vegetables.getCount(),
+                fruits.getTotalWeight() + vegetables.getTotalWeight());
+    }
+
+    /**
+     * Writes every farm with its vegetables and fruits as one JSON object per line.
+     * Farms are read in id-ordered chunks of projections; each chunk costs three
+     * queries and nothing is attached to the persistence context, so heap use
+     * depends on the chunk size rather than on the size of the dataset.
+     * <p>
+     * Every chunk is read in its own short read-only transaction and written to the
+     * client after it commits, so a slow reader does not hold a pooled connection.
+     * Each chunk is consistent on its own; the export as a whole is not a snapshot.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void exportInventory(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(FarmInventoryView.class);
+        long started = System.nanoTime();
+        long farmCount = 0;
+        long produceCount = 0;
+        long afterId = 0L;
+        List<FarmInventoryView> inventory = readInventoryChunk(afterId);
+        while (!inventory.isEmpty()) {
+            for (FarmInventoryView farm : inventory) {
+                out.write(writer.writeValueAsBytes(farm));
+                out.write('\n');
+                produceCount += farm.getVegetables().size() + farm.getFruits().size();
+            }
+            out.flush();
+            farmCount += inventory.size();
+            afterId = inventory.get(inventory.size() - 1).getId();
+            inventory = readInventoryChunk(afterId);
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Exported {} farms with {} produce items in {} ms ({} rows/s)",
+                farmCount, produceCount, elapsedMillis, (farmCount + produceCount) * 1000 / elapsedMillis);
     }
 
-    //8.
-    public List<FarmSortedDTO> findFarmsSorted(String sortBy, String order) {
+    private List<FarmInventoryView> readInventoryChunk(long afterId) {
+        return readTransaction.execute(status -> {
+            List<FarmView> chunk = farmRepository.findViewsAfter(afterId, Limit.of(exportChunkSize));
+            if (chunk.isEmpty()) {
+                return List.of();
+            }
+            List<Long> farmIds = chunk.stream().map(FarmView::getId).toList();
+            return toInventory(chunk,
+                    vegetableRepository.findViewsByFarmIds(farmIds),
+                    fruitRepository.findViewsByFarmIds(farmIds));
+        });
+    }
+
+    //8. Получение ферм с сортировкой по количеству фруктов или овощей
+    @Transactional(readOnly = true)
+    public List<FarmSortedDTO> findFarmsSorted(String sortBy, String order, int page, int size) {
+        validateSorting(sortBy, order, size);
+        if (page < 0) {
+            throw new IllegalArgumentException("page должен быть >= 0");
+        }
+        int offset;
+        try {
+            offset = Math.multiplyExact(page, size);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("page слишком велик: смещение page * size не помещается в int", e);
+        }
+        return farmRepository.rankFarms("fruits".equals(sortBy), "asc".equals(order),
+                null, null, offset, size);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FarmSortedDTO> findFarmsSortedAfter(String sortBy, String order,
+                                                    Long afterCount, Long afterId, int size) {
+        validateSorting(sortBy, order, size);
+        if (afterCount == null || afterId == null) {
+            throw new IllegalArgumentException("afterCount и afterId должны передаваться вместе");
+        }
+        return farmRepository.rankFarms("fruits".equals(sortBy), "asc".equals(order),
+                afterCount, afterId, 0, size);
+    }
+
+    private void validateSorting(String sortBy, String order, int size) {
         if (!"fruits".equals(sortBy) && !"vegetables".equals(sortBy)) {
-            throw new IllegalArgumentException("sortBy должен быть или 'fruits' или 'vegetable")
+            throw new IllegalArgumentException("sortBy должен быть или 'fruits' или 'vegetables'");
         }
         if (!"asc".equals(order) && !"desc".equals(order)) {
-            throw new IllegalArgumentException("order должен быть или 'asc' или 'desc")
+            throw new IllegalArgumentException("order должен быть или 'asc' или 'desc'");
+        }
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("size должен быть от 1 до 1000");
         }
-        List<Farm> farms = farmRepository.findAll();
-        List<FarmSortedDTO> farmsSortedDTO = farms.stream()
-                .map(farm -> new FarmSortedDTO(
-                        farm.getId(),
-                        farm.getName(),
-                        farm.getLocation(),
-                        farm.getFruits().size(),
-                        farm.getVegetables().size()
-                )).sorted(f1, f2 -> {
-                    sortBy.equals("fruits") ?
-                            Long.compare(f1.getFruitCount(), f2.getFtuitCount()) :
-                            Long.compare(f1.getVegetableCount(), f2.getVegetableCount()):
-                    return order.equals("asc") ? compare : -compare;
-                }).collect(Collectors.toList());
-        return farmsSortedDTO;
     }
 }
@@ -1,22 +1,27 @@
 package by.ilyushenko.farm.service;
 
 import by.ilyushenko.farm.dto.FarmDto;
+import by.ilyushenko.farm.dto.FarmInventoryView;
+import by.ilyushenko.farm.dto.FarmSortedDTO;
 import by.ilyushenko.farm.dto.FarmStatsDTO;
+import by.ilyushenko.farm.dto.FarmView;
 import by.ilyushenko.farm.entity.Farm;
-import by.ilyushenko.farm.entity.Vegetable;
+import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
 public interface FarmServiceInterface {
     
-    List<Farm> getAllFarms();
+    List<FarmInventoryView> getAllFarms();
     
-    Optional<Farm> getFarmById(Long id);
+    Optional<FarmInventoryView> getFarmById(Long id);
     
     Farm createFarm(Farm farm);
     
-    Farm updateFarm(Long id, Farm farmDetails);
+    Farm updateFarm(Long id, Farm farmDetails, Long expectedVersion);
     
     void deleteFarm(Long id);
     
@@ -30,7 +35,17 @@ public interface FarmServiceInterface {
 
     FarmDto getFarmWithFruitCount(Long id);
 
-    List<Farm> searchFarmsByName(String searchTerm);
+    List<FarmView> searchFarmsByName(String searchTerm, Integer limit);
+
+    List<FarmView> searchFarmsByLocation(String searchTerm, Integer limit);
 
     FarmStatsDTO getFarmStats(Long farmId);
+
+    List<FarmStatsDTO> getAllFarmStats(Pageable pageable);
+
+    void exportInventory(OutputStream out) throws IOException;
+
+    List<FarmSortedDTO> findFarmsSorted(String sortBy, String order, int page, int size);
+
+    List<FarmSortedDTO> findFarmsSortedAfter(String sortBy, String order, Long afterCount, Long afterId, int size);
 }
@@ -1,16 +1,46 @@
 package by.ilyushenko.farm.service;
 
+import by.ilyushenko.farm.config.BatchProperties;
+import by.ilyushenko.farm.config.PaginationProperties;
+import by.ilyushenko.farm.dto.BatchResultDTO;
+import by.ilyushenko.farm.dto.BulkMoveRequest;
+import by.ilyushenko.farm.dto.BulkMoveResultDTO;
+import by.ilyushenko.farm.dto.CursorPage;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.dto.FruitView;
 import by.ilyushenko.farm.entity.Farm;
 import by.ilyushenko.farm.entity.Fruit;
+import by.ilyushenko.farm.event.ChangeType;
+import by.ilyushenko.farm.event.ProduceBulkChangedEvent;
+import by.ilyushenko.farm.event.ProduceChangedEvent;
+import by.ilyushenko.farm.event.ProduceType;
+import by.ilyushenko.farm.exception.PreconditionFailedException;
 import by.ilyushenko.farm.exception.ResourceNotFoundException;
 import by.ilyushenko.farm.repository.FarmRepository;
 import by.ilyushenko.farm.repository.FruitRepository;
+import by.ilyushenko.farm.search.SearchIndexService;
+import by.ilyushenko.farm.search.SearchTarget;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -18,21 +48,58 @@ public class FruitService implements FruitServiceInterface {
     
     private final FruitRepository fruitRepository;
     private final FarmRepository farmRepository;
+    private final PaginationProperties paginationProperties;
+    private final BatchProperties batchProperties;
+    private final Validator validator;
+    private final FarmCollectionCache farmCollectionCache;
+    private final FarmProduceCleaner farmProduceCleaner;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetry optimisticRetry;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     @Autowired
-    public FruitService(FruitRepository fruitRepository, FarmRepository farmRepository) {
+    public FruitService(FruitRepository fruitRepository, FarmRepository farmRepository,
+                        PaginationProperties paginationProperties, BatchProperties batchProperties,
+                        Validator validator, FarmCollectionCache farmCollectionCache,
+                        FarmProduceCleaner farmProduceCleaner,
+                        SearchIndexService searchIndexService, ApplicationEventPublisher eventPublisher,
+                        OptimisticRetry optimisticRetry) {
         this.fruitRepository = fruitRepository;
         this.farmRepository = farmRepository;
+        this.paginationProperties = paginationProperties;
+        this.batchProperties = batchProperties;
+        this.validator = validator;
+        this.farmCollectionCache = farmCollectionCache;
+        this.farmProduceCleaner = farmProduceCleaner;
+        this.searchIndexService = searchIndexService;
+        this.eventPublisher = eventPublisher;
+        this.optimisticRetry = optimisticRetry;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<FruitView> getAllFruits() {
+        return fruitRepository.findAllViews();
     }
     
     @Transactional(readOnly = true)
-    public List<Fruit> getAllFruits() {
-        return fruitRepository.findAllWithFarm();
+    public CursorPage<FruitView> getFruitsPage(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        long afterId = CursorPage.decodeCursor(cursor);
+        // one extra row tells whether there is a next page without a count query
+        List<FruitView> fruits = fruitRepository.findViewsAfter(afterId, Limit.of(pageSize + 1));
+        if (fruits.size() <= pageSize) {
+            return new CursorPage<>(fruits, null);
+        }
+        List<FruitView> page = fruits.subList(0, pageSize);
+        return new CursorPage<>(page, CursorPage.encodeCursor(page.get(pageSize - 1).getId()));
     }
     
     @Transactional(readOnly = true)
-    public Optional<Fruit> getFruitById(Long id) {
-        return fruitRepository.findByIdWithFarm(id);
+    public Optional<FruitView> getFruitById(Long id) {
+        return fruitRepository.findViewById(id);
     }
     
     public Fruit createFruit(Fruit fruit, Long farmId) {
@@ -45,12 +112,77 @@ public class FruitService implements FruitServiceInterface {
         // Add to farm's fruits list
         farm.addFruit(savedFruit);
         
+        eventPublisher.publishEvent(ProduceChangedEvent.of(ChangeType.CREATED, savedFruit, farmId));
         return savedFruit;
     }
     
-    public Fruit updateFruit(Long id, Fruit fruitDetails, Long farmId) {
+    /**
+     * Inserts a batch of fruits in one transaction. Farm ids are resolved with a single
+     * query, the persistence context is flushed and cleared every
+     * {@code farm.batch.flush-size} rows, and invalid items are reported by index
+     * instead of failing the whole batch.
+     */
+    public BatchResultDTO createFruits(List<ProduceBatchItem> items) {
+        if (items.size() > batchProperties.getMaxItems()) {
+            throw new IllegalArgumentException("Batch must not exceed " + batchProperties.getMaxItems() + " items");
+        }
+        BatchResultDTO result = new BatchResultDTO(items.size());
+        Set<Long> farmIds = items.stream()
+                .map(ProduceBatchItem::getFarmId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingFarmIds = farmIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(farmRepository.findExistingIds(farmIds));
+
+        int pending = 0;
+        for (int i = 0; i < items.size(); i++) {
+            ProduceBatchItem item = items.get(i);
+            Set<ConstraintViolation<ProduceBatchItem>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                result.addError(i, describe(violations));
+                continue;
+            }
+            if (!existingFarmIds.contains(item.getFarmId())) {
+                result.addError(i, "Farm not found with id: " + item.getFarmId());
+                continue;
+            }
+            Farm farm = entityManager.getReference(Farm.class, item.getFarmId());
+            entityManager.persist(new Fruit(item.getName(), item.getColor(), item.getWeight(), farm));
+            result.itemCreated();
+            if (++pending == batchProperties.getFlushSize()) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        farmCollectionCache.evictFruits(existingFarmIds);
+        eventPublisher.publishEvent(new ProduceBulkChangedEvent(ProduceType.FRUIT, existingFarmIds));
+        return result;
+    }
+    
+    private static String describe(Set<ConstraintViolation<ProduceBatchItem>> violations) {
+        return violations.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+    
+    /**
+     * Updates the fruit in its own transaction, repeated on a concurrent version conflict.
+     * With {@code expectedVersion} set, a fruit changed since that version is rejected instead.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Fruit updateFruit(Long id, Fruit fruitDetails, Long farmId, Long expectedVersion) {
+        return optimisticRetry.execute(() -> doUpdateFruit(id, fruitDetails, farmId, expectedVersion));
+    }
+    
+    private Fruit doUpdateFruit(Long id, Fruit fruitDetails, Long farmId, Long expectedVersion) {
         Fruit fruit = fruitRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Fruit not found with id: " + id));
+        checkVersion(fruit, expectedVersion);
         
         Farm farm = farmRepository.findById(farmId)
                 .orElseThrow(() -> new ResourceNotFoundException("Farm not found with id: " + farmId));
@@ -61,14 +193,17 @@ public class FruitService implements FruitServiceInterface {
         fruit.setWeight(fruitDetails.getWeight());
         
         // Update farm if changed
-        if (!fruit.getFarm().getId().equals(farmId)) {
+        Long previousFarmId = fruit.getFarm().getId();
+        if (!previousFarmId.equals(farmId)) {
             Farm oldFarm = fruit.getFarm();
             oldFarm.removeFruit(fruit);
             fruit.setFarm(farm);
             farm.addFruit(fruit);
         }
         
-        return fruitRepository.save(fruit);
+        Fruit savedFruit = fruitRepository.save(fruit);
+        eventPublisher.publishEvent(ProduceChangedEvent.of(ChangeType.UPDATED, savedFruit, previousFarmId));
+        return savedFruit;
     }
     
     public void deleteFruit(Long id) {
@@ -80,21 +215,42 @@ public class FruitService implements FruitServiceInterface {
         farm.removeFruit(fruit);
         
         fruitRepository.delete(fruit);
+        eventPublisher.publishEvent(new ProduceChangedEvent(ProduceType.FRUIT, ChangeType.DELETED, fruit.getId(),
+                fruit.getName(), fruit.getColor(), fruit.getWeight(), farm.getId(), farm.getId()));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<FruitView> getFruitsByFarmId(Long farmId) {
+        return fruitRepository.findViewsByFarmId(farmId);
     }
     
     @Transactional(readOnly = true)
-    public List<Fruit> getFruitsByFarmId(Long farmId) {
-        return fruitRepository.findByFarmIdWithFarm(farmId);
+    public List<FruitView> findByName(String name) {
+        return fruitRepository.findViewsByNameContaining(name);
     }
     
     @Transactional(readOnly = true)
-    public List<Fruit> findByName(String name) {
-        return fruitRepository.findByNameContainingIgnoreCase(name);
+    public List<FruitView> findByColor(String color) {
+        return fruitRepository.findViewsByColorContaining(color);
     }
     
+    /**
+     * Ranked name or color search served by the in-memory n-gram index.
+     */
     @Transactional(readOnly = true)
-    public List<Fruit> findByColor(String color) {
-        return fruitRepository.findByColorContainingIgnoreCase(color);
+    public List<FruitView> searchFruits(String query, String field, Integer limit) {
+        SearchTarget target = switch (field) {
+            case "name" -> SearchTarget.FRUIT_NAME;
+            case "color" -> SearchTarget.FRUIT_COLOR;
+            default -> throw new IllegalArgumentException("field должен быть или 'name' или 'color'");
+        };
+        List<Long> ids = searchIndexService.search(target, query, paginationProperties.resolvePageSize(limit));
+        Map<Long, FruitView> byId = fruitRepository.findViewsByIds(ids).stream()
+                .collect(Collectors.toMap(FruitView::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
     
     @Transactional(readOnly = true)
@@ -103,31 +259,110 @@ public class FruitService implements FruitServiceInterface {
     }
 
     //2. Фильтрация фруктов по цвету
-    public List<Fruit> filterFruitsByColor(String color) {
+    @Transactional(readOnly = true)
+    public List<FruitView> filterFruitsByColor(String color) {
         if (color == null || color.trim().isEmpty()) {
-            return fruitRepository.findAll();
+            return fruitRepository.findAllViews();
         } else {
-            return fruitRepository.findByColor(color);
+            return fruitRepository.findViewsByColor(color);
         }
     }
+    @Transactional(readOnly = true)
+    public List<FruitView> getFruitsByWeight(Double minWeight, Double maxWeight, String order) {
+        if (minWeight == null || minWeight <= 0) {
+            throw new IllegalArgumentException("минимальный вес должен быть больше 0");
+        }
+        if (maxWeight != null && maxWeight < minWeight) {
+            throw new IllegalArgumentException("максимальный вес не может быть меньше минимального");
+        }
+        if (!"asc".equals(order) && !"desc".equals(order)) {
+            throw new IllegalArgumentException("order должен быть или 'asc' или 'desc'");
+        }
+        Sort sort = Sort.by(Sort.Direction.fromString(order), "weight").and(Sort.by("id"));
+        return fruitRepository.findViewsByWeightRange(minWeight, maxWeight, sort);
+    }
+
     //4. Перемещение фрукта или овоща на другую ферму
-    @Transactional
-    public Fruit moveFruitToFarm(Long fruitId, Long farmId) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Fruit moveFruitToFarm(Long fruitId, Long farmId, Long expectedVersion) {
+        return optimisticRetry.execute(() -> doMoveFruitToFarm(fruitId, farmId, expectedVersion));
+    }
+
+    private Fruit doMoveFruitToFarm(Long fruitId, Long farmId, Long expectedVersion) {
         Fruit fruit = fruitRepository.findById(fruitId)
                 .orElseThrow(() -> new ResourceNotFoundException("Fruit not found" + farmId));
+        checkVersion(fruit, expectedVersion);
 
         Farm farm = farmRepository.findById(farmId)
                 .orElseThrow(() -> new ResourceNotFoundException("Farm not found"+ farmId));
 
+        Long previousFarmId = fruit.getFarm().getId();
         fruit.setFarm(farm);
-        return fruitRepository.save(fruit);
+        farmCollectionCache.evictFruits(List.of(previousFarmId, farmId));
+        Fruit savedFruit = fruitRepository.save(fruit);
+        eventPublisher.publishEvent(ProduceChangedEvent.of(ChangeType.UPDATED, savedFruit, previousFarmId));
+        return savedFruit;
     }
-//6. Массовое удаление фруктов или овощей по ферме
+    /**
+     * Moves every fruit selected by ids or by filter to the target farm with one UPDATE
+     * and returns the number of moved rows; items already on the target farm are skipped.
+     */
     @Transactional
+    public BulkMoveResultDTO moveFruits(BulkMoveRequest request) {
+        validateBulkMove(request);
+        Long targetFarmId = request.getTargetFarmId();
+        if (!farmRepository.existsById(targetFarmId)) {
+            throw new ResourceNotFoundException("Farm not found with id: " + targetFarmId);
+        }
+        Farm target = farmRepository.getReferenceById(targetFarmId);
+
+        // исходные фермы нужны для инвалидации кэша коллекций и поискового индекса
+        List<Long> sourceFarmIds;
+        int moved;
+        if (request.hasIds()) {
+            sourceFarmIds = fruitRepository.findFarmIdsByIds(request.getIds(), target);
+            moved = fruitRepository.moveByIds(request.getIds(), target);
+        } else {
+            sourceFarmIds = fruitRepository.findFarmIdsByFilter(target, request.getSourceFarmId(), request.getColor(),
+                    request.getMinWeight(), request.getMaxWeight());
+            moved = fruitRepository.moveByFilter(target, request.getSourceFarmId(), request.getColor(),
+                    request.getMinWeight(), request.getMaxWeight());
+        }
+        if (moved > 0) {
+            Set<Long> affectedFarmIds = new HashSet<>(sourceFarmIds);
+            affectedFarmIds.add(targetFarmId);
+            farmCollectionCache.evictFruits(affectedFarmIds);
+            eventPublisher.publishEvent(new ProduceBulkChangedEvent(ProduceType.FRUIT, affectedFarmIds));
+        }
+        return new BulkMoveResultDTO(targetFarmId, moved);
+    }
+
+    private static void checkVersion(Fruit fruit, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(fruit.getVersion())) {
+            throw new PreconditionFailedException("Fruit " + fruit.getId() + " has version " + fruit.getVersion()
+                    + ", expected " + expectedVersion);
+        }
+    }
+
+    private void validateBulkMove(BulkMoveRequest request) {
+        if (request.hasIds() == request.hasFilter()) {
+            throw new IllegalArgumentException("Нужно передать либо ids, либо фильтр (sourceFarmId, color, minWeight, maxWeight)");
+        }
+        if (request.hasIds() && request.getIds().size() > batchProperties.getMaxItems()) {
+            throw new IllegalArgumentException("Batch must not exceed " + batchProperties.getMaxItems() + " items");
+        }
+        if (request.getMinWeight() != null && request.getMaxWeight() != null
+                && request.getMinWeight() > request.getMaxWeight()) {
+            throw new IllegalArgumentException("minWeight не может быть больше maxWeight");
+        }
+    }
+//6. Массовое удаление фруктов или овощей по ферме
+    // Без общей транзакции: крупные фермы удаляются чанками, каждый чанк коммитится и публикует событие сам
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void deleteFruitsByFarmId(Long farmId) {
         if (!farmRepository.existsById(farmId)) {
             throw new ResourceNotFoundException("Farm not found" + farmId);
         }
-        fruitRepository.deleteByFarmId(farmId);
+        farmProduceCleaner.deleteFruits(farmId);
     }
 }
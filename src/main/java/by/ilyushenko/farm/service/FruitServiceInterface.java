@@ -1,5 +1,11 @@
 package by.ilyushenko.farm.service;
 
+import by.ilyushenko.farm.dto.BatchResultDTO;
+import by.ilyushenko.farm.dto.BulkMoveRequest;
+import by.ilyushenko.farm.dto.BulkMoveResultDTO;
+import by.ilyushenko.farm.dto.CursorPage;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.dto.FruitView;
 import by.ilyushenko.farm.entity.Fruit;
 
 import java.util.List;
@@ -7,27 +13,37 @@ import java.util.Optional;
 
 public interface FruitServiceInterface {
     
-    List<Fruit> getAllFruits();
+    List<FruitView> getAllFruits();
+
+    CursorPage<FruitView> getFruitsPage(String cursor, Integer size);
     
-    Optional<Fruit> getFruitById(Long id);
+    Optional<FruitView> getFruitById(Long id);
     
     Fruit createFruit(Fruit fruit, Long farmId);
+
+    BatchResultDTO createFruits(List<ProduceBatchItem> items);
     
-    Fruit updateFruit(Long id, Fruit fruitDetails, Long farmId);
+    Fruit updateFruit(Long id, Fruit fruitDetails, Long farmId, Long expectedVersion);
     
     void deleteFruit(Long id);
     
-    List<Fruit> getFruitsByFarmId(Long farmId);
+    List<FruitView> getFruitsByFarmId(Long farmId);
     
-    List<Fruit> findByName(String name);
+    List<FruitView> findByName(String name);
     
-    List<Fruit> findByColor(String color);
+    List<FruitView> findByColor(String color);
+
+    List<FruitView> searchFruits(String query, String field, Integer limit);
     
     boolean existsById(Long id);
 
-    List<Fruit> filterFruitsByColor(String color);
+    List<FruitView> filterFruitsByColor(String color);
+
+    List<FruitView> getFruitsByWeight(Double minWeight, Double maxWeight, String order);
+
+    Fruit moveFruitToFarm(Long fruitId, Long farmId, Long expectedVersion);
 
-    Fruit moveFruitToFarm(Long fruitId, Long farmId);
+    BulkMoveResultDTO moveFruits(BulkMoveRequest request);
 
     void deleteFruitsByFarmId(Long farmId);
 }
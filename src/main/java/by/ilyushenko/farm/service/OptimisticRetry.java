@@ -0,0 +1,81 @@
+package by.ilyushenko.farm.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write in its own transaction and repeats it when the commit
+ * fails the {@code @Version} check, up to {@code farm.optimistic.max-attempts} times
+ * with a short randomized backoff. Every attempt re-reads the entities, so the
+ * action must not capture managed state from outside.
+ * <p>
+ * Inside a caller's transaction a retry cannot help (the conflict only surfaces at
+ * the caller's commit), so the action then runs once as part of it.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    @Autowired
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${farm.optimistic.max-attempts:5}") int maxAttempts,
+                           @Value("${farm.optimistic.backoff-ms:5}") long backoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.retries = Counter.builder("farm.optimistic.retries")
+                .description("Transactions repeated after an optimistic lock conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("farm.optimistic.conflicts")
+                .description("Optimistic lock conflicts that outlasted all retries")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Случайная задержка растёт с номером попытки, чтобы конкурирующие запросы разошлись
+    private void backoff(int attempt) {
+        long bound = backoffMillis * attempt;
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Повтор транзакции прерван", e);
+        }
+    }
+}
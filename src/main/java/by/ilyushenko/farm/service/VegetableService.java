@@ -1,17 +1,49 @@
 
 package by.ilyushenko.farm.service;
 
+import by.ilyushenko.farm.config.BatchProperties;
+import by.ilyushenko.farm.config.PaginationProperties;
+import by.ilyushenko.farm.dto.BatchResultDTO;
+import by.ilyushenko.farm.dto.BulkMoveRequest;
+import by.ilyushenko.farm.dto.BulkMoveResultDTO;
+import by.ilyushenko.farm.dto.CursorPage;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.dto.VegetableView;
 import by.ilyushenko.farm.entity.Farm;
 import by.ilyushenko.farm.entity.Vegetable;
+import by.ilyushenko.farm.event.ChangeType;
+import by.ilyushenko.farm.event.ProduceBulkChangedEvent;
+import by.ilyushenko.farm.event.ProduceChangedEvent;
+import by.ilyushenko.farm.event.ProduceType;
+import by.ilyushenko.farm.exception.PreconditionFailedException;
 import by.ilyushenko.farm.exception.ResourceNotFoundException;
 import by.ilyushenko.farm.repository.FarmRepository;
 import by.ilyushenko.farm.repository.VegetableRepository;
+import by.ilyushenko.farm.search.SearchIndexService;
+import by.ilyushenko.farm.search.SearchTarget;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -19,21 +51,58 @@ public class VegetableService implements VegetableServiceInterface {
     
     private final VegetableRepository vegetableRepository;
     private final FarmRepository farmRepository;
+    private final PaginationProperties paginationProperties;
+    private final BatchProperties batchProperties;
+    private final Validator validator;
+    private final FarmCollectionCache farmCollectionCache;
+    private final FarmProduceCleaner farmProduceCleaner;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetry optimisticRetry;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     @Autowired
-    public VegetableService(VegetableRepository vegetableRepository, FarmRepository farmRepository) {
+    public VegetableService(VegetableRepository vegetableRepository, FarmRepository farmRepository,
+                            PaginationProperties paginationProperties, BatchProperties batchProperties,
+                            Validator validator, FarmCollectionCache farmCollectionCache,
+                            FarmProduceCleaner farmProduceCleaner,
+                            SearchIndexService searchIndexService, ApplicationEventPublisher eventPublisher,
+                            OptimisticRetry optimisticRetry) {
         this.vegetableRepository = vegetableRepository;
         this.farmRepository = farmRepository;
+        this.paginationProperties = paginationProperties;
+        this.batchProperties = batchProperties;
+        this.validator = validator;
+        this.farmCollectionCache = farmCollectionCache;
+        this.farmProduceCleaner = farmProduceCleaner;
+        this.searchIndexService = searchIndexService;
+        this.eventPublisher = eventPublisher;
+        this.optimisticRetry = optimisticRetry;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<VegetableView> getAllVegetables() {
+        return vegetableRepository.findAllViews();
     }
     
     @Transactional(readOnly = true)
-    public List<Vegetable> getAllVegetables() {
-        return vegetableRepository.findAllWithFarm();
+    public CursorPage<VegetableView> getVegetablesPage(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        long afterId = CursorPage.decodeCursor(cursor);
+        // one extra row tells whether there is a next page without a count query
+        List<VegetableView> vegetables = vegetableRepository.findViewsAfter(afterId, Limit.of(pageSize + 1));
+        if (vegetables.size() <= pageSize) {
+            return new CursorPage<>(vegetables, null);
+        }
+        List<VegetableView> page = vegetables.subList(0, pageSize);
+        return new CursorPage<>(page, CursorPage.encodeCursor(page.get(pageSize - 1).getId()));
     }
     
     @Transactional(readOnly = true)
-    public Optional<Vegetable> getVegetableById(Long id) {
-        return vegetableRepository.findByIdWithFarm(id);
+    public Optional<VegetableView> getVegetableById(Long id) {
+        return vegetableRepository.findViewById(id);
     }
     
     public Vegetable createVegetable(Vegetable vegetable, Long farmId) {
@@ -46,12 +115,77 @@ public class VegetableService implements VegetableServiceInterface {
         // Add to farm's vegetables list
         farm.addVegetable(savedVegetable);
         
+        eventPublisher.publishEvent(ProduceChangedEvent.of(ChangeType.CREATED, savedVegetable, farmId));
         return savedVegetable;
     }
     
-    public Vegetable updateVegetable(Long id, Vegetable vegetableDetails, Long farmId) {
+    /**
+     * Inserts a batch of vegetables in one transaction. Farm ids are resolved with a single
+     * query, the persistence context is flushed and cleared every
+     * {@code farm.batch.flush-size} rows, and invalid items are reported by index
+     * instead of failing the whole batch.
+     */
+    public BatchResultDTO createVegetables(List<ProduceBatchItem> items) {
+        if (items.size() > batchProperties.getMaxItems()) {
+            throw new IllegalArgumentException("Batch must not exceed " + batchProperties.getMaxItems() + " items");
+        }
+        BatchResultDTO result = new BatchResultDTO(items.size());
+        Set<Long> farmIds = items.stream()
+                .map(ProduceBatchItem::getFarmId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingFarmIds = farmIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(farmRepository.findExistingIds(farmIds));
+
+        int pending = 0;
+        for (int i = 0; i < items.size(); i++) {
+            ProduceBatchItem item = items.get(i);
+            Set<ConstraintViolation<ProduceBatchItem>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                result.addError(i, describe(violations));
+                continue;
+            }
+            if (!existingFarmIds.contains(item.getFarmId())) {
+                result.addError(i, "Farm not found with id: " + item.getFarmId());
+                continue;
+            }
+            Farm farm = entityManager.getReference(Farm.class, item.getFarmId());
+            entityManager.persist(new Vegetable(item.getName(), item.getColor(), item.getWeight(), farm));
+            result.itemCreated();
+            if (++pending == batchProperties.getFlushSize()) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        farmCollectionCache.evictVegetables(existingFarmIds);
+        eventPublisher.publishEvent(new ProduceBulkChangedEvent(ProduceType.VEGETABLE, existingFarmIds));
+        return result;
+    }
+    
+    private static String describe(Set<ConstraintViolation<ProduceBatchItem>> violations) {
+        return violations.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+    
+    /**
+     * Updates the vegetable in its own transaction, repeated on a concurrent version conflict.
+     * With {@code expectedVersion} set, a vegetable changed since that version is rejected instead.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Vegetable updateVegetable(Long id, Vegetable vegetableDetails, Long farmId, Long expectedVersion) {
+        return optimisticRetry.execute(() -> doUpdateVegetable(id, vegetableDetails, farmId, expectedVersion));
+    }
+    
+    private Vegetable doUpdateVegetable(Long id, Vegetable vegetableDetails, Long farmId, Long expectedVersion) {
         Vegetable vegetable = vegetableRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Vegetable not found with id: " + id));
+        checkVersion(vegetable, expectedVersion);
         
         Farm farm = farmRepository.findById(farmId)
                 .orElseThrow(() -> new ResourceNotFoundException("Farm not found with id: " + farmId));
@@ -62,14 +196,17 @@ public class VegetableService implements VegetableServiceInterface {
         vegetable.setWeight(vegetableDetails.getWeight());
         
         // Update farm if changed
-        if (!vegetable.getFarm().getId().equals(farmId)) {
+        Long previousFarmId = vegetable.getFarm().getId();
+        if (!previousFarmId.equals(farmId)) {
             Farm oldFarm = vegetable.getFarm();
             oldFarm.removeVegetable(vegetable);
             vegetable.setFarm(farm);
             farm.addVegetable(vegetable);
         }
         
-        return vegetableRepository.save(vegetable);
+        Vegetable savedVegetable = vegetableRepository.save(vegetable);
+        eventPublisher.publishEvent(ProduceChangedEvent.of(ChangeType.UPDATED, savedVegetable, previousFarmId));
+        return savedVegetable;
     }
     
     public void deleteVegetable(Long id) {
@@ -81,21 +218,42 @@ public class VegetableService implements VegetableServiceInterface {
         farm.removeVegetable(vegetable);
         
         vegetableRepository.delete(vegetable);
+        eventPublisher.publishEvent(new ProduceChangedEvent(ProduceType.VEGETABLE, ChangeType.DELETED, vegetable.getId(),
+                vegetable.getName(), vegetable.getColor(), vegetable.getWeight(), farm.getId(), farm.getId()));
     }
     
     @Transactional(readOnly = true)
-    public List<Vegetable> getVegetablesByFarmId(Long farmId) {
-        return vegetableRepository.findByFarmIdWithFarm(farmId);
+    public List<VegetableView> getVegetablesByFarmId(Long farmId) {
+        return vegetableRepository.findViewsByFarmId(farmId);
     }
     
     @Transactional(readOnly = true)
-    public List<Vegetable> findByName(String name) {
-        return vegetableRepository.findByNameContainingIgnoreCase(name);
+    public List<VegetableView> findByName(String name) {
+        return vegetableRepository.findViewsByNameContaining(name);
     }
 
     @Transactional(readOnly = true)
-    public List<Vegetable> findByColor(String color) {
-        return vegetableRepository.findByColorContainingIgnoreCase(color);
+    public List<VegetableView> findByColor(String color) {
+        return vegetableRepository.findViewsByColorContaining(color);
+    }
+    
+    /**
+     * Ranked name or color search served by the in-memory n-gram index.
+     */
+    @Transactional(readOnly = true)
+    public List<VegetableView> searchVegetables(String query, String field, Integer limit) {
+        SearchTarget target = switch (field) {
+            case "name" -> SearchTarget.VEGETABLE_NAME;
+            case "color" -> SearchTarget.VEGETABLE_COLOR;
+            default -> throw new IllegalArgumentException("field должен быть или 'name' или 'color'");
+        };
+        List<Long> ids = searchIndexService.search(target, query, paginationProperties.resolvePageSize(limit));
+        Map<Long, VegetableView> byId = vegetableRepository.findViewsByIds(ids).stream()
+                .collect(Collectors.toMap(VegetableView::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
     
     @Transactional(readOnly = true)
@@ -109,30 +267,100 @@ public class VegetableService implements VegetableServiceInterface {
     }
 //3. Получение овощей с весом больше заданного
     @Transactional(readOnly = true)
-    public List<Vegetable> getVegetablesByMinWeight(Integer minWeight) {
+    public List<VegetableView> getVegetablesByWeight(Double minWeight, Double maxWeight, String order) {
         if (minWeight <= 0) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "минимальный вес должен быть больше 0");
         }
-        return vegetableRepository.findByWeightGreaterThan(minWeight);
+        if (maxWeight != null && maxWeight < minWeight) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "максимальный вес не может быть меньше минимального");
+        }
+        if (!"asc".equals(order) && !"desc".equals(order)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "order должен быть или 'asc' или 'desc'");
+        }
+        Sort sort = Sort.by(Sort.Direction.fromString(order), "weight").and(Sort.by("id"));
+        return vegetableRepository.findViewsByWeightRange(minWeight, maxWeight, sort);
     }
 //4. Перемещение фрукта или овоща на другую ферму
-    @Transactional
-    public Vegetable moveVegetableToFarm(Long vegetableId, Long farmId) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Vegetable moveVegetableToFarm(Long vegetableId, Long farmId, Long expectedVersion) {
+        return optimisticRetry.execute(() -> doMoveVegetableToFarm(vegetableId, farmId, expectedVersion));
+    }
+
+    private Vegetable doMoveVegetableToFarm(Long vegetableId, Long farmId, Long expectedVersion) {
         Vegetable vegetable = vegetableRepository.findById(vegetableId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Vegetable not found"));
+        checkVersion(vegetable, expectedVersion);
 
         Farm farm = farmRepository.findById(farmId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Farm not found"));
 
+        Long previousFarmId = vegetable.getFarm().getId();
         vegetable.setFarm(farm);
-        return vegetableRepository.save(vegetable);
+        farmCollectionCache.evictVegetables(List.of(previousFarmId, farmId));
+        Vegetable savedVegetable = vegetableRepository.save(vegetable);
+        eventPublisher.publishEvent(ProduceChangedEvent.of(ChangeType.UPDATED, savedVegetable, previousFarmId));
+        return savedVegetable;
     }
-//6. Массовое удаление фруктов или овощей по ферме
+    /**
+     * Moves every vegetable selected by ids or by filter to the target farm with one UPDATE
+     * and returns the number of moved rows; items already on the target farm are skipped.
+     */
     @Transactional
+    public BulkMoveResultDTO moveVegetables(BulkMoveRequest request) {
+        validateBulkMove(request);
+        Long targetFarmId = request.getTargetFarmId();
+        if (!farmRepository.existsById(targetFarmId)) {
+            throw new ResourceNotFoundException("Farm not found with id: " + targetFarmId);
+        }
+        Farm target = farmRepository.getReferenceById(targetFarmId);
+
+        // исходные фермы нужны для инвалидации кэша коллекций и поискового индекса
+        List<Long> sourceFarmIds;
+        int moved;
+        if (request.hasIds()) {
+            sourceFarmIds = vegetableRepository.findFarmIdsByIds(request.getIds(), target);
+            moved = vegetableRepository.moveByIds(request.getIds(), target);
+        } else {
+            sourceFarmIds = vegetableRepository.findFarmIdsByFilter(target, request.getSourceFarmId(), request.getColor(),
+                    request.getMinWeight(), request.getMaxWeight());
+            moved = vegetableRepository.moveByFilter(target, request.getSourceFarmId(), request.getColor(),
+                    request.getMinWeight(), request.getMaxWeight());
+        }
+        if (moved > 0) {
+            Set<Long> affectedFarmIds = new HashSet<>(sourceFarmIds);
+            affectedFarmIds.add(targetFarmId);
+            farmCollectionCache.evictVegetables(affectedFarmIds);
+            eventPublisher.publishEvent(new ProduceBulkChangedEvent(ProduceType.VEGETABLE, affectedFarmIds));
+        }
+        return new BulkMoveResultDTO(targetFarmId, moved);
+    }
+
+    private static void checkVersion(Vegetable vegetable, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(vegetable.getVersion())) {
+            throw new PreconditionFailedException("Vegetable " + vegetable.getId() + " has version " + vegetable.getVersion()
+                    + ", expected " + expectedVersion);
+        }
+    }
+
+    private void validateBulkMove(BulkMoveRequest request) {
+        if (request.hasIds() == request.hasFilter()) {
+            throw new IllegalArgumentException("Нужно передать либо ids, либо фильтр (sourceFarmId, color, minWeight, maxWeight)");
+        }
+        if (request.hasIds() && request.getIds().size() > batchProperties.getMaxItems()) {
+            throw new IllegalArgumentException("Batch must not exceed " + batchProperties.getMaxItems() + " items");
+        }
+        if (request.getMinWeight() != null && request.getMaxWeight() != null
+                && request.getMinWeight() > request.getMaxWeight()) {
+            throw new IllegalArgumentException("minWeight не может быть больше maxWeight");
+        }
+    }
+//6. Массовое удаление фруктов или овощей по ферме
+    // Без общей транзакции: крупные фермы удаляются чанками, каждый чанк коммитится и публикует событие сам
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void deleteVegetablesByFarmId(Long farmId) {
         if (!farmRepository.existsById(farmId)) {
             throw new ResourceNotFoundException("Farm not found" + farmId);
         }
-        vegetableRepository.deleteByFarmId(farmId);
+        farmProduceCleaner.deleteVegetables(farmId);
     }
 }
@@ -1,5 +1,11 @@
 package by.ilyushenko.farm.service;
 
+import by.ilyushenko.farm.dto.BatchResultDTO;
+import by.ilyushenko.farm.dto.BulkMoveRequest;
+import by.ilyushenko.farm.dto.BulkMoveResultDTO;
+import by.ilyushenko.farm.dto.CursorPage;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.dto.VegetableView;
 import by.ilyushenko.farm.entity.Vegetable;
 
 import java.util.List;
@@ -7,29 +13,37 @@ import java.util.Optional;
 
 public interface VegetableServiceInterface {
     
-    List<Vegetable> getAllVegetables();
+    List<VegetableView> getAllVegetables();
+
+    CursorPage<VegetableView> getVegetablesPage(String cursor, Integer size);
     
-    Optional<Vegetable> getVegetableById(Long id);
+    Optional<VegetableView> getVegetableById(Long id);
     
     Vegetable createVegetable(Vegetable vegetable, Long farmId);
+
+    BatchResultDTO createVegetables(List<ProduceBatchItem> items);
     
-    Vegetable updateVegetable(Long id, Vegetable vegetableDetails, Long farmId);
+    Vegetable updateVegetable(Long id, Vegetable vegetableDetails, Long farmId, Long expectedVersion);
     
     void deleteVegetable(Long id);
     
-    List<Vegetable> getVegetablesByFarmId(Long farmId);
+    List<VegetableView> getVegetablesByFarmId(Long farmId);
     
-    List<Vegetable> findByName(String name);
+    List<VegetableView> findByName(String name);
     
-    List<Vegetable> findByColor(String color);
+    List<VegetableView> findByColor(String color);
+
+    List<VegetableView> searchVegetables(String query, String field, Integer limit);
     
     boolean existsById(Long id);
 
     List<Vegetable> findByColorAndWeight(String color, Double weight);
 
-    List<Vegetable> getVegetablesByMinWeight(Integer minWeight);
+    List<VegetableView> getVegetablesByWeight(Double minWeight, Double maxWeight, String order);
+
+    Vegetable moveVegetableToFarm(Long vegetableId, Long farmId, Long expectedVersion);
 
-    Vegetable moveVegetableToFarm(Long vegetableId, Long farmId);
+    BulkMoveResultDTO moveVegetables(BulkMoveRequest request);
 
     void deleteVegetablesByFarmId(Long farmId);
 }
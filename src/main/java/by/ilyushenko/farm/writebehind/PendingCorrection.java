@@ -0,0 +1,63 @@
+package by.ilyushenko.farm.writebehind;
+
+import by.ilyushenko.farm.dto.ProduceCorrection;
+
+/**
+ * Coalesced state of all not yet written corrections of one fruit or vegetable.
+ */
+final class PendingCorrection {
+
+    private final long id;
+    private String name;
+    private String color;
+    private Double weight;
+
+    PendingCorrection(ProduceCorrection correction) {
+        this.id = correction.getId();
+        apply(correction);
+    }
+
+    // Последняя запись побеждает по каждому полю отдельно
+    void apply(ProduceCorrection correction) {
+        if (correction.getName() != null) {
+            name = correction.getName();
+        }
+        if (correction.getColor() != null) {
+            color = correction.getColor();
+        }
+        if (correction.getWeight() != null) {
+            weight = correction.getWeight();
+        }
+    }
+
+    /**
+     * Fills the fields not set here from an older correction that failed to flush.
+     */
+    void applyOlder(PendingCorrection older) {
+        if (name == null) {
+            name = older.name;
+        }
+        if (color == null) {
+            color = older.color;
+        }
+        if (weight == null) {
+            weight = older.weight;
+        }
+    }
+
+    long getId() {
+        return id;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getColor() {
+        return color;
+    }
+
+    Double getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,331 @@
+package by.ilyushenko.farm.writebehind;
+
+import by.ilyushenko.farm.config.WriteBehindProperties;
+import by.ilyushenko.farm.dto.ProduceCorrection;
+import by.ilyushenko.farm.dto.ProduceRowDTO;
+import by.ilyushenko.farm.entity.Fruit;
+import by.ilyushenko.farm.entity.Vegetable;
+import by.ilyushenko.farm.event.ChangeType;
+import by.ilyushenko.farm.event.ProduceChangedEvent;
+import by.ilyushenko.farm.event.ProduceType;
+import by.ilyushenko.farm.exception.WriteBufferFullException;
+import by.ilyushenko.farm.repository.FruitRepository;
+import by.ilyushenko.farm.repository.VegetableRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind pipeline for high-rate fruit/vegetable corrections.
+ * <p>
+ * Submissions are coalesced per id (last write wins per field) in a buffer of at
+ * most {@code farm.write-behind.capacity} distinct items; a submission for a new id
+ * waits up to {@code offer-timeout-ms} for space and is then rejected. A single
+ * flusher thread writes the buffer with batched JDBC UPDATEs in one transaction
+ * whenever {@code flush-size} items are pending or {@code flush-interval-ms}
+ * elapsed. Entity cache entries are evicted and {@link ProduceChangedEvent}s are
+ * published for the written rows, so search, analytics and response caches follow
+ * as for service updates. A failed flush puts its items back under newer ones.
+ * <p>
+ * Started only with {@code farm.write-behind.enabled=true}; the flag is read at
+ * runtime rather than through a bean condition, so AOT-processed builds honour it.
+ * Stopped after the web server, with a final synchronous flush.
+ */
+@Component
+public class ProduceWriteBehindBuffer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProduceWriteBehindBuffer.class);
+
+    private static final String UPDATE_SET = " SET name = COALESCE(?, name), color = COALESCE(?, color), " +
+            "weight = COALESCE(?, weight), version = version + 1 WHERE id = ?";
+
+    private final Map<ProduceType, LinkedHashMap<Long, PendingCorrection>> pending = new EnumMap<>(ProduceType.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile int size;
+    private volatile boolean running;
+    private ScheduledExecutorService flusher;
+
+    private final WriteBehindProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FruitRepository fruitRepository;
+    private final VegetableRepository vegetableRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Timer flushTimer;
+    private final Counter coalesced;
+    private final Counter written;
+    private final Counter rejected;
+    private final Counter failures;
+
+    @Autowired
+    public ProduceWriteBehindBuffer(WriteBehindProperties properties,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    FruitRepository fruitRepository,
+                                    VegetableRepository vegetableRepository,
+                                    EntityManagerFactory entityManagerFactory,
+                                    ApplicationEventPublisher eventPublisher,
+                                    MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fruitRepository = fruitRepository;
+        this.vegetableRepository = vegetableRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        for (ProduceType type : ProduceType.values()) {
+            pending.put(type, new LinkedHashMap<>());
+        }
+
+        Gauge.builder("farm.writebehind.queue.depth", this, ProduceWriteBehindBuffer::size)
+                .description("Distinct fruits/vegetables waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("farm.writebehind.flush")
+                .description("Time to write one batch of buffered corrections")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("farm.writebehind.coalesced")
+                .description("Corrections merged into an already pending item")
+                .register(meterRegistry);
+        this.written = Counter.builder("farm.writebehind.written")
+                .description("Items written by flushes")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("farm.writebehind.rejected")
+                .description("Corrections rejected because the buffer stayed full")
+                .register(meterRegistry);
+        this.failures = Counter.builder("farm.writebehind.flush.failures")
+                .description("Flushes that failed and were put back into the buffer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a correction, blocking up to {@code offer-timeout-ms} while the buffer is full.
+     *
+     * @throws WriteBufferFullException if no space became available in time
+     */
+    public void submit(ProduceCorrection correction) {
+        if (!running) {
+            throw new IllegalStateException("Буфер записи остановлен");
+        }
+        boolean flushNow;
+        lock.lock();
+        try {
+            Map<Long, PendingCorrection> items = pending.get(correction.getType());
+            long remaining = TimeUnit.MILLISECONDS.toNanos(properties.getOfferTimeoutMs());
+            while (true) {
+                PendingCorrection existing = items.get(correction.getId());
+                if (existing != null) {
+                    existing.apply(correction);
+                    coalesced.increment();
+                    return;
+                }
+                if (size < properties.getCapacity()) {
+                    break;
+                }
+                if (remaining <= 0) {
+                    rejected.increment();
+                    throw new WriteBufferFullException("Буфер записи заполнен, повторите позже");
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            items.put(correction.getId(), new PendingCorrection(correction));
+            size++;
+            flushNow = size == properties.getFlushSize();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание места в буфере прервано", e);
+        } finally {
+            lock.unlock();
+        }
+        if (flushNow) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // буфер останавливается, оставшееся запишет stop()
+            }
+        }
+    }
+
+    /**
+     * Writes everything pending at the time of the call.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<ProduceType, List<PendingCorrection>> batch = drain();
+            int count = batch.values().stream().mapToInt(List::size).sum();
+            if (count == 0) {
+                return;
+            }
+            Timer.Sample sample = Timer.start();
+            try {
+                transactionTemplate.executeWithoutResult(status -> batch.forEach(this::write));
+            } catch (RuntimeException e) {
+                failures.increment();
+                requeue(batch);
+                throw e;
+            } finally {
+                sample.stop(flushTimer);
+            }
+            // повторная очистка после коммита: читатель мог закэшировать старую строку во время записи
+            evict(batch);
+            written.increment(count);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushIntervalMs();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Write-behind flusher did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int remaining = size;
+        flush();
+        log.info("Write-behind buffer stopped, {} pending items written on shutdown", remaining);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.isEnabled();
+    }
+
+    // Останавливается после веб-сервера, чтобы не принимать новые правки во время финальной записи
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush failed, {} items kept for the next attempt", size, e);
+        }
+    }
+
+    private Map<ProduceType, List<PendingCorrection>> drain() {
+        Map<ProduceType, List<PendingCorrection>> batch = new EnumMap<>(ProduceType.class);
+        lock.lock();
+        try {
+            pending.forEach((type, items) -> {
+                batch.put(type, new ArrayList<>(items.values()));
+                items.clear();
+            });
+            size = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return batch;
+    }
+
+    private void requeue(Map<ProduceType, List<PendingCorrection>> batch) {
+        lock.lock();
+        try {
+            batch.forEach((type, corrections) -> {
+                Map<Long, PendingCorrection> items = pending.get(type);
+                for (PendingCorrection older : corrections) {
+                    PendingCorrection newer = items.get(older.getId());
+                    if (newer == null) {
+                        items.put(older.getId(), older);
+                        size++;
+                    } else {
+                        newer.applyOlder(older);
+                    }
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(ProduceType type, List<PendingCorrection> corrections) {
+        if (corrections.isEmpty()) {
+            return;
+        }
+        String table = type == ProduceType.FRUIT ? "fruits" : "vegetables";
+        jdbcTemplate.batchUpdate("UPDATE " + table + UPDATE_SET, corrections, properties.getFlushSize(),
+                (statement, correction) -> {
+                    statement.setObject(1, correction.getName(), Types.VARCHAR);
+                    statement.setObject(2, correction.getColor(), Types.VARCHAR);
+                    statement.setObject(3, correction.getWeight(), Types.DOUBLE);
+                    statement.setLong(4, correction.getId());
+                });
+        evict(Map.of(type, corrections));
+
+        // события строятся по итоговым строкам; удалённые за это время записи просто не находятся
+        List<Long> ids = corrections.stream().map(PendingCorrection::getId).toList();
+        List<ProduceRowDTO> rows = type == ProduceType.FRUIT
+                ? fruitRepository.findRowsByIds(ids)
+                : vegetableRepository.findRowsByIds(ids);
+        for (ProduceRowDTO row : rows) {
+            eventPublisher.publishEvent(new ProduceChangedEvent(type, ChangeType.UPDATED, row.getId(), row.getName(),
+                    row.getColor(), row.getWeight(), row.getFarmId(), row.getFarmId()));
+        }
+    }
+
+    private void evict(Map<ProduceType, List<PendingCorrection>> batch) {
+        Cache cache = entityManagerFactory.getCache();
+        batch.forEach((type, corrections) -> {
+            Class<?> entity = type == ProduceType.FRUIT ? Fruit.class : Vegetable.class;
+            corrections.forEach(correction -> cache.evict(entity, correction.getId()));
+        });
+    }
+}
@@ -0,0 +1,41 @@
+-- Baseline schema, matches the JPA mappings (validated with ddl-auto=validate in the prod profile)
+
+CREATE TABLE farms (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name     VARCHAR(100) NOT NULL,
+    location VARCHAR(255)
+);
+
+-- Increment matches allocationSize = 50 of the pooled sequence generators
+CREATE SEQUENCE fruits_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE vegetables_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE fruits (
+    id      BIGINT PRIMARY KEY,
+    name    VARCHAR(50) NOT NULL,
+    color   VARCHAR(50),
+    weight  DOUBLE PRECISION NOT NULL,
+    farm_id BIGINT NOT NULL,
+    CONSTRAINT fk_fruits_farm FOREIGN KEY (farm_id) REFERENCES farms (id)
+);
+
+CREATE TABLE vegetables (
+    id      BIGINT PRIMARY KEY,
+    name    VARCHAR(50) NOT NULL,
+    color   VARCHAR(50),
+    weight  DOUBLE PRECISION NOT NULL,
+    farm_id BIGINT NOT NULL,
+    CONSTRAINT fk_vegetables_farm FOREIGN KEY (farm_id) REFERENCES farms (id)
+);
+
+CREATE INDEX idx_farms_name ON farms (name);
+
+CREATE INDEX idx_fruits_farm_id ON fruits (farm_id);
+CREATE INDEX idx_fruits_name ON fruits (name);
+CREATE INDEX idx_fruits_color ON fruits (color);
+CREATE INDEX idx_fruits_weight ON fruits (weight);
+
+CREATE INDEX idx_vegetables_farm_id ON vegetables (farm_id);
+CREATE INDEX idx_vegetables_name ON vegetables (name);
+CREATE INDEX idx_vegetables_color ON vegetables (color);
+CREATE INDEX idx_vegetables_weight ON vegetables (weight);
@@ -0,0 +1,12 @@
+-- Composite indexes for farm/color/weight filters. The single-column farm_id and
+-- color indexes are prefixes of the new ones and only slowed down writes.
+
+CREATE INDEX idx_fruits_farm_color_weight ON fruits (farm_id, color, weight);
+CREATE INDEX idx_fruits_color_weight ON fruits (color, weight);
+DROP INDEX idx_fruits_farm_id;
+DROP INDEX idx_fruits_color;
+
+CREATE INDEX idx_vegetables_farm_color_weight ON vegetables (farm_id, color, weight);
+CREATE INDEX idx_vegetables_color_weight ON vegetables (color, weight);
+DROP INDEX idx_vegetables_farm_id;
+DROP INDEX idx_vegetables_color;
@@ -0,0 +1,6 @@
+-- Version columns for optimistic locking (@Version). Existing rows start at 0;
+-- bulk UPDATE statements increment the version explicitly.
+
+ALTER TABLE farms ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE fruits ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE vegetables ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
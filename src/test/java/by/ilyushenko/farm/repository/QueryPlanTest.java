@@ -0,0 +1,266 @@
+package by.ilyushenko.farm.repository;
+
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.entity.Farm;
+import by.ilyushenko.farm.repository.RecordingConnectionProvider.Binding;
+import by.ilyushenko.farm.repository.RecordingConnectionProvider.RecordedStatement;
+import by.ilyushenko.farm.service.FarmServiceInterface;
+import by.ilyushenko.farm.service.FruitServiceInterface;
+import by.ilyushenko.farm.service.VegetableServiceInterface;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query against the Flyway schema and checks its H2 plan
+ * with {@code EXPLAIN}: a plan that reads a table without an index fails the test.
+ * The statements and their bind values are captured by {@link RecordingConnectionProvider},
+ * so the plan is the one for the exact SQL Hibernate generates.
+ * <p>
+ * Queries that scan by design (full listings, {@code LIKE '%..%'} searches, farm ranking
+ * and the optional-filter bulk move) are listed separately and only checked to run.
+ * Plain JDBC and R2DBC reads are not covered.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:farm-query-plan;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.connection.provider_class=by.ilyushenko.farm.repository.RecordingConnectionProvider",
+        "farm.seed.enabled=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanTest.class);
+
+    private static final int FARMS = 20;
+    private static final int PRODUCE_PER_FARM = 100;
+    private static final String TABLE_SCAN = ".tableScan";
+
+    @Autowired
+    private FarmRepository farmRepository;
+
+    @Autowired
+    private FruitRepository fruitRepository;
+
+    @Autowired
+    private VegetableRepository vegetableRepository;
+
+    @Autowired
+    private FarmServiceInterface farmService;
+
+    @Autowired
+    private FruitServiceInterface fruitService;
+
+    @Autowired
+    private VegetableServiceInterface vegetableService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> farmIds = new ArrayList<>();
+    private List<Long> fruitIds;
+    private List<Long> vegetableIds;
+
+    @BeforeAll
+    void seed() {
+        List<ProduceBatchItem> produce = new ArrayList<>();
+        for (int i = 0; i < FARMS; i++) {
+            Long farmId = farmService.createFarm(new Farm("Plan Farm " + i, "Region " + i)).getId();
+            farmIds.add(farmId);
+            for (int j = 0; j < PRODUCE_PER_FARM; j++) {
+                produce.add(new ProduceBatchItem("Item " + j, "Color " + (j % 10), 10.0 + j, farmId));
+            }
+        }
+        fruitService.createFruits(produce);
+        vegetableService.createVegetables(produce);
+        // свежая статистика, чтобы оптимизатор выбирал план по реальному объёму данных
+        new JdbcTemplate(dataSource).execute("ANALYZE");
+
+        fruitIds = fruitRepository.findIdsByFarmIdAfter(farmIds.get(0), 0L, Limit.of(5));
+        vegetableIds = vegetableRepository.findIdsByFarmIdAfter(farmIds.get(0), 0L, Limit.of(5));
+    }
+
+    @Test
+    void farmIdQueriesUseCompositeIndex() {
+        // V2 удалила idx_*_farm_id: выборки по ферме должны уйти на префикс (farm_id, color, weight)
+        Long farmId = farmIds.get(1);
+        List<Long> lastIds = fruitRepository.findIdsByFarmIdAfter(farmId, 0L, Limit.of(PRODUCE_PER_FARM));
+
+        assertFarmIdIndex(explain("fruit.findRowsByFarmIds", () -> fruitRepository.findRowsByFarmIds(farmIds.subList(0, 3))));
+        assertFarmIdIndex(explain("fruit.deleteByFarmIdAndIdRange",
+                () -> fruitRepository.deleteByFarmIdAndIdRange(farmId, 0L, lastIds.get(lastIds.size() - 1))));
+        assertFarmIdIndex(explain("vegetable.findRowsByFarmIds", () -> vegetableRepository.findRowsByFarmIds(farmIds.subList(0, 3))));
+        assertFarmIdIndex(explain("vegetable.deleteByFarmIdAndIdRange",
+                () -> vegetableRepository.deleteByFarmIdAndIdRange(farmId, 0L, Long.MAX_VALUE)));
+    }
+
+    @Test
+    void farmQueriesUseIndexes() {
+        Long farmId = farmIds.get(0);
+        assertIndexed("farm.findByName", () -> farmRepository.findByName("Plan Farm 3"));
+        assertIndexed("farm.findViewById", () -> farmRepository.findViewById(farmId));
+        assertIndexed("farm.findViewsByIds", () -> farmRepository.findViewsByIds(farmIds.subList(0, 3)));
+        assertIndexed("farm.findViewsAfter", () -> farmRepository.findViewsAfter(farmIds.get(FARMS - 3), Limit.of(10)));
+        assertIndexed("farm.findExistingIds", () -> farmRepository.findExistingIds(farmIds.subList(0, 3)));
+        assertIndexed("farm.findById", () -> farmRepository.findById(farmId));
+
+        assertRuns("farm.findAllViews", () -> farmRepository.findAllViews());
+        assertRuns("farm.findViewSlice", () -> farmRepository.findViewSlice(PageRequest.of(0, 10)));
+        assertRuns("farm.findByNameContainingIgnoreCase", () -> farmRepository.findByNameContainingIgnoreCase("farm 1"));
+        assertRuns("farm.findByLocationContainingIgnoreCase", () -> farmRepository.findByLocationContainingIgnoreCase("region"));
+        assertRuns("farm.rankFarms", () -> farmRepository.rankFarms(true, false, null, null, 0, 10));
+        assertRuns("farm.rankFarms keyset", () -> farmRepository.rankFarms(false, true, 50L, farmId, 0, 10));
+    }
+
+    @Test
+    void fruitQueriesUseIndexes() {
+        Long farmId = farmIds.get(2);
+        Farm target = farmRepository.getReferenceById(farmIds.get(3));
+
+        assertIndexed("fruit.findByFarmId", () -> fruitRepository.findByFarmId(farmId));
+        assertIndexed("fruit.findViewById", () -> fruitRepository.findViewById(fruitIds.get(0)));
+        assertIndexed("fruit.findViewsAfter", () -> fruitRepository.findViewsAfter(fruitIds.get(2), Limit.of(10)));
+        assertIndexed("fruit.findViewsByFarmId", () -> fruitRepository.findViewsByFarmId(farmId));
+        assertIndexed("fruit.findViewsByFarmIds", () -> fruitRepository.findViewsByFarmIds(farmIds.subList(0, 3)));
+        assertIndexed("fruit.findViewsByIds", () -> fruitRepository.findViewsByIds(fruitIds));
+        assertIndexed("fruit.findViewsByColor", () -> fruitRepository.findViewsByColor("Color 3"));
+        assertIndexed("fruit.findViewsByWeightRange",
+                () -> fruitRepository.findViewsByWeightRange(100.0, 105.0, Sort.by("weight")));
+        assertIndexed("fruit.findRowsAfter", () -> fruitRepository.findRowsAfter(fruitIds.get(2), Limit.of(10)));
+        assertIndexed("fruit.findRowsByIds", () -> fruitRepository.findRowsByIds(fruitIds));
+        assertIndexed("fruit.countByFarmId", () -> fruitRepository.countByFarmId(farmId));
+        assertIndexed("fruit.getStatsByFarmId", () -> fruitRepository.getStatsByFarmId(farmId));
+        assertIndexed("fruit.getStatsByFarmIds", () -> fruitRepository.getStatsByFarmIds(farmIds.subList(0, 3)));
+        assertIndexed("fruit.findFarmIdsByIds", () -> fruitRepository.findFarmIdsByIds(fruitIds, target));
+        assertIndexed("fruit.moveByIds", () -> fruitRepository.moveByIds(fruitIds, target));
+        assertIndexed("fruit.findIdsByFarmIdAfter", () -> fruitRepository.findIdsByFarmIdAfter(farmId, 0L, Limit.of(10)));
+        assertIndexed("fruit.deleteByFarmId", () -> fruitRepository.deleteByFarmId(farmId));
+
+        assertRuns("fruit.findAllViews", () -> fruitRepository.findAllViews());
+        assertRuns("fruit.findViewsByNameContaining", () -> fruitRepository.findViewsByNameContaining("item 1"));
+        assertRuns("fruit.findViewsByColorContaining", () -> fruitRepository.findViewsByColorContaining("or 1"));
+        assertRuns("fruit.findFarmIdsByFilter",
+                () -> fruitRepository.findFarmIdsByFilter(target, farmId, "Color 1", null, null));
+        assertRuns("fruit.moveByFilter", () -> fruitRepository.moveByFilter(target, farmId, "Color 1", null, null));
+    }
+
+    @Test
+    void vegetableQueriesUseIndexes() {
+        Long farmId = farmIds.get(2);
+        Farm target = farmRepository.getReferenceById(farmIds.get(3));
+
+        assertIndexed("vegetable.findByFarmId", () -> vegetableRepository.findByFarmId(farmId));
+        assertIndexed("vegetable.findViewById", () -> vegetableRepository.findViewById(vegetableIds.get(0)));
+        assertIndexed("vegetable.findViewsAfter", () -> vegetableRepository.findViewsAfter(vegetableIds.get(2), Limit.of(10)));
+        assertIndexed("vegetable.findViewsByFarmId", () -> vegetableRepository.findViewsByFarmId(farmId));
+        assertIndexed("vegetable.findViewsByFarmIds", () -> vegetableRepository.findViewsByFarmIds(farmIds.subList(0, 3)));
+        assertIndexed("vegetable.findViewsByIds", () -> vegetableRepository.findViewsByIds(vegetableIds));
+        assertIndexed("vegetable.findViewsByColor", () -> vegetableRepository.findViewsByColor("Color 3"));
+        assertIndexed("vegetable.findViewsByWeightRange",
+                () -> vegetableRepository.findViewsByWeightRange(100.0, 105.0, Sort.by("weight")));
+        assertIndexed("vegetable.findRowsAfter", () -> vegetableRepository.findRowsAfter(vegetableIds.get(2), Limit.of(10)));
+        assertIndexed("vegetable.findRowsByIds", () -> vegetableRepository.findRowsByIds(vegetableIds));
+        assertIndexed("vegetable.findByColorAndWeight", () -> vegetableRepository.findByColorAndWeight("Color 3", 13.0));
+        assertIndexed("vegetable.countByFarmId", () -> vegetableRepository.countByFarmId(farmId));
+        assertIndexed("vegetable.getStatsByFarmId", () -> vegetableRepository.getStatsByFarmId(farmId));
+        assertIndexed("vegetable.getStatsByFarmIds", () -> vegetableRepository.getStatsByFarmIds(farmIds.subList(0, 3)));
+        assertIndexed("vegetable.findFarmIdsByIds", () -> vegetableRepository.findFarmIdsByIds(vegetableIds, target));
+        assertIndexed("vegetable.moveByIds", () -> vegetableRepository.moveByIds(vegetableIds, target));
+        assertIndexed("vegetable.findIdsByFarmIdAfter", () -> vegetableRepository.findIdsByFarmIdAfter(farmId, 0L, Limit.of(10)));
+        assertIndexed("vegetable.deleteByFarmId", () -> vegetableRepository.deleteByFarmId(farmId));
+
+        assertRuns("vegetable.findAllViews", () -> vegetableRepository.findAllViews());
+        assertRuns("vegetable.findViewsByNameContaining", () -> vegetableRepository.findViewsByNameContaining("item 1"));
+        assertRuns("vegetable.findViewsByColorContaining", () -> vegetableRepository.findViewsByColorContaining("or 1"));
+        assertRuns("vegetable.findFarmIdsByFilter",
+                () -> vegetableRepository.findFarmIdsByFilter(target, farmId, "Color 1", null, null));
+        assertRuns("vegetable.moveByFilter", () -> vegetableRepository.moveByFilter(target, farmId, "Color 1", null, null));
+    }
+
+    private void assertIndexed(String query, Runnable call) {
+        assertThat(explain(query, call)).as(query).allSatisfy(plan -> assertThat(plan).doesNotContain(TABLE_SCAN));
+    }
+
+    private void assertFarmIdIndex(List<String> plans) {
+        assertThat(plans).allSatisfy(plan -> {
+            assertThat(plan).doesNotContain(TABLE_SCAN);
+            assertThat(plan).containsPattern("/\\* PUBLIC\\.\\w+: [^*]*FARM_ID");
+        });
+    }
+
+    private void assertRuns(String query, Runnable call) {
+        explain(query, call);
+    }
+
+    /**
+     * Runs the call in a rolled-back transaction and returns the H2 plan of every
+     * statement it executed.
+     */
+    private List<String> explain(String query, Runnable call) {
+        // запрос из кэша второго уровня не доходит до базы, и плана не будет
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        RecordingConnectionProvider.STATEMENTS.clear();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            call.run();
+            status.setRollbackOnly();
+        });
+        List<RecordedStatement> statements = List.copyOf(RecordingConnectionProvider.STATEMENTS);
+        assertThat(statements).as(query + " executed no SQL").isNotEmpty();
+
+        List<String> plans = new ArrayList<>();
+        for (RecordedStatement statement : statements) {
+            String plan = planOf(statement);
+            log.info("{}: {}", query, plan);
+            plans.add(plan);
+        }
+        return plans;
+    }
+
+    private String planOf(RecordedStatement statement) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (Binding binding : statement.bindings()) {
+                binding.applyTo(explain);
+            }
+            try (ResultSet rs = explain.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1));
+                }
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("EXPLAIN failed for " + statement.sql(), e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package by.ilyushenko.farm.repository;
+
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hibernate connection provider for tests that records every executed prepared
+ * statement together with its parameter bindings, so the statement can be
+ * replayed later (for example under {@code EXPLAIN}).
+ * Enabled with {@code spring.jpa.properties.hibernate.connection.provider_class}.
+ */
+public class RecordingConnectionProvider extends DatasourceConnectionProviderImpl {
+
+    static final List<RecordedStatement> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    /**
+     * One {@code setXxx(index, value...)} call on a prepared statement.
+     */
+    record Binding(Method setter, Object[] args) {
+
+        void applyTo(PreparedStatement statement) throws SQLException {
+            invoke(statement, setter, args);
+        }
+    }
+
+    record RecordedStatement(String sql, List<Binding> bindings) {
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                        return recording((String) args[0], statement);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement recording(String sql, PreparedStatement statement) {
+        List<Binding> bindings = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(RecordingConnectionProvider.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        bindings.add(new Binding(method, args.clone()));
+                    } else if (name.equals("clearParameters")) {
+                        bindings.clear();
+                    } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                        STATEMENTS.add(new RecordedStatement(sql, List.copyOf(bindings)));
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
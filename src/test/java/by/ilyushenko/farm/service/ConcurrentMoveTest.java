@@ -0,0 +1,246 @@
+package by.ilyushenko.farm.service;
+
+import by.ilyushenko.farm.dto.FruitView;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.entity.Farm;
+import by.ilyushenko.farm.entity.Fruit;
+import by.ilyushenko.farm.exception.PreconditionFailedException;
+import by.ilyushenko.farm.repository.FruitRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads moving a few hot fruits between farms with {@code moveFruitToFarm}.
+ * <p>
+ * With {@code If-Match} every call passes the version it read, so each successful
+ * move must raise the version by exactly one and stale calls are rejected. Without
+ * it every conflict must be absorbed by {@link OptimisticRetry}: all moves succeed
+ * and each fruit ends with its initial version plus the number of its moves.
+ * The retry budget is raised so that outcome does not depend on scheduling luck.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrent-move;DB_CLOSE_DELAY=-1",
+        "farm.seed.enabled=false",
+        "farm.optimistic.max-attempts=30"
+})
+class ConcurrentMoveTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrentMoveTest.class);
+
+    private static final int THREADS = 8;
+    private static final int MOVES_PER_THREAD = 200;
+    private static final int FARMS = 4;
+    private static final int HOT_FRUITS = 3;
+
+    @Autowired
+    private FarmServiceInterface farmService;
+
+    @Autowired
+    private FruitServiceInterface fruitService;
+
+    @Autowired
+    private FruitRepository fruitRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private int farmsCreated;
+
+    private record Move(long fruitId, long expectedVersion, long targetFarmId, Fruit result) {
+    }
+
+    @Test
+    void concurrentMovesKeepEveryUpdate() throws Exception {
+        List<Long> farmIds = createFarms(FARMS);
+        List<Long> fruitIds = createHotFruits(farmIds.get(0));
+        Map<Long, Long> initialVersions = versions(fruitIds);
+
+        ConcurrentLinkedQueue<Move> successes = new ConcurrentLinkedQueue<>();
+        AtomicLong rejected = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started;
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < MOVES_PER_THREAD; i++) {
+                        long fruitId = fruitIds.get(ThreadLocalRandom.current().nextInt(fruitIds.size()));
+                        FruitView current = fruitRepository.findViewsByIds(List.of(fruitId)).get(0);
+                        long target = otherFarm(farmIds, current.getFarmId());
+                        try {
+                            Fruit moved = fruitService.moveFruitToFarm(fruitId, target, current.getVersion());
+                            successes.add(new Move(fruitId, current.getVersion(), target, moved));
+                        } catch (PreconditionFailedException | OptimisticLockingFailureException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            started = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("{} moves committed, {} rejected as stale in {} ms ({} moves/s)",
+                successes.size(), rejected.get(), elapsedMillis, successes.size() * 1000L / elapsedMillis);
+
+        assertThat(successes).isNotEmpty();
+        assertThat(successes.size() + rejected.get()).isEqualTo((long) THREADS * MOVES_PER_THREAD);
+
+        Map<Long, Set<Long>> committedVersions = new HashMap<>();
+        Map<Long, Move> latest = new HashMap<>();
+        for (Move move : successes) {
+            assertThat(move.result().getVersion()).isEqualTo(move.expectedVersion() + 1);
+            assertThat(move.result().getFarm().getId()).isEqualTo(move.targetFarmId());
+            assertThat(committedVersions.computeIfAbsent(move.fruitId(), id -> new HashSet<>())
+                    .add(move.result().getVersion()))
+                    .as("version %d of fruit %d committed twice", move.result().getVersion(), move.fruitId())
+                    .isTrue();
+            latest.merge(move.fruitId(), move,
+                    (a, b) -> a.result().getVersion() >= b.result().getVersion() ? a : b);
+        }
+
+        Map<Long, Long> finalVersions = versions(fruitIds);
+        for (Long fruitId : fruitIds) {
+            int moves = committedVersions.getOrDefault(fruitId, Set.of()).size();
+            assertThat(finalVersions.get(fruitId)).isEqualTo(initialVersions.get(fruitId) + moves);
+        }
+
+        // каждый фрукт числится ровно на одной ферме — той, куда его переместил последний успешный вызов
+        Map<Long, Long> farmOf = new HashMap<>();
+        for (Long farmId : farmIds) {
+            for (FruitView view : fruitService.getFruitsByFarmId(farmId)) {
+                assertThat(farmOf.put(view.getId(), farmId)).isNull();
+            }
+        }
+        assertThat(farmOf.keySet()).containsExactlyInAnyOrderElementsOf(fruitIds);
+        latest.forEach((fruitId, move) -> assertThat(farmOf.get(fruitId)).isEqualTo(move.targetFarmId()));
+    }
+
+    @Test
+    void unconditionalMovesSucceedThroughRetries() throws Exception {
+        // у каждого перемещения своя новая ферма, поэтому ни одно не может оказаться пустым
+        List<Long> farmIds = createFarms(1 + THREADS * MOVES_PER_THREAD);
+        List<Long> fruitIds = createHotFruits(farmIds.get(0));
+        Map<Long, Long> initialVersions = versions(fruitIds);
+        double retriesBefore = meterRegistry.get("farm.optimistic.retries").counter().count();
+
+        ConcurrentLinkedQueue<Move> moves = new ConcurrentLinkedQueue<>();
+        AtomicInteger nextFarm = new AtomicInteger(1);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started;
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < MOVES_PER_THREAD; i++) {
+                        long fruitId = fruitIds.get(ThreadLocalRandom.current().nextInt(fruitIds.size()));
+                        long target = farmIds.get(nextFarm.getAndIncrement());
+                        // исключение (исчерпанные повторы) провалит тест через Future.get
+                        Fruit moved = fruitService.moveFruitToFarm(fruitId, target, null);
+                        moves.add(new Move(fruitId, moved.getVersion() - 1, target, moved));
+                    }
+                    return null;
+                }));
+            }
+            started = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        double retries = meterRegistry.get("farm.optimistic.retries").counter().count() - retriesBefore;
+        log.info("{} unconditional moves committed with {} retries in {} ms ({} moves/s)",
+                moves.size(), (long) retries, elapsedMillis, moves.size() * 1000L / elapsedMillis);
+
+        assertThat(moves).hasSize(THREADS * MOVES_PER_THREAD);
+        assertThat(retries).as("conflicts were retried").isPositive();
+
+        Map<Long, List<Move>> movesByFruit = new HashMap<>();
+        moves.forEach(move -> movesByFruit.computeIfAbsent(move.fruitId(), id -> new ArrayList<>()).add(move));
+        Map<Long, Long> finalVersions = versions(fruitIds);
+        for (Long fruitId : fruitIds) {
+            List<Move> applied = movesByFruit.getOrDefault(fruitId, List.of());
+            long initial = initialVersions.get(fruitId);
+            assertThat(finalVersions.get(fruitId)).isEqualTo(initial + applied.size());
+            // каждая версия от initial+1 до итоговой закоммичена ровно одним перемещением
+            assertThat(applied).extracting(move -> move.result().getVersion())
+                    .containsExactlyInAnyOrderElementsOf(
+                            LongStream.rangeClosed(initial + 1, initial + applied.size()).boxed().toList());
+            applied.forEach(move -> assertThat(move.result().getFarm().getId()).isEqualTo(move.targetFarmId()));
+            applied.stream()
+                    .max(Comparator.comparingLong(move -> move.result().getVersion()))
+                    .ifPresent(last -> assertThat(fruitRepository.findViewsByIds(List.of(fruitId)).get(0).getFarmId())
+                            .isEqualTo(last.targetFarmId()));
+        }
+    }
+
+    private List<Long> createFarms(int count) {
+        List<Long> farmIds = new ArrayList<>();
+        for (int i = 0; i < count; i++, farmsCreated++) {
+            farmIds.add(farmService.createFarm(new Farm("Move Farm " + farmsCreated, "Region " + i)).getId());
+        }
+        return farmIds;
+    }
+
+    private List<Long> createHotFruits(Long farmId) {
+        List<ProduceBatchItem> items = new ArrayList<>();
+        for (int i = 0; i < HOT_FRUITS; i++) {
+            items.add(new ProduceBatchItem("Hot " + i, "Red", 100.0 + i, farmId));
+        }
+        fruitService.createFruits(items);
+        return fruitRepository.findIdsByFarmIdAfter(farmId, 0L, Limit.unlimited());
+    }
+
+    private Map<Long, Long> versions(List<Long> fruitIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        fruitRepository.findViewsByIds(fruitIds).forEach(view -> versions.put(view.getId(), view.getVersion()));
+        return versions;
+    }
+
+    private static long otherFarm(List<Long> farmIds, Long currentFarmId) {
+        long target;
+        do {
+            target = farmIds.get(ThreadLocalRandom.current().nextInt(farmIds.size()));
+        } while (target == currentFarmId);
+        return target;
+    }
+}
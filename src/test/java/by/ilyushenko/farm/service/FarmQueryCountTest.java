@@ -0,0 +1,85 @@
+package by.ilyushenko.farm.service;
+
+import by.ilyushenko.farm.dto.FarmInventoryView;
+import by.ilyushenko.farm.dto.ProduceBatchItem;
+import by.ilyushenko.farm.entity.Farm;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@code getAllFarms} must cost the same number of statements however many farms
+ * there are: one projection query each for farms, vegetables and fruits, with no
+ * per-farm lazy loading.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:farm-query-count;DB_CLOSE_DELAY=-1",
+        "farm.seed.enabled=false"
+})
+class FarmQueryCountTest {
+
+    private static final int PRODUCE_PER_FARM = 3;
+
+    @Autowired
+    private FarmServiceInterface farmService;
+
+    @Autowired
+    private FruitServiceInterface fruitService;
+
+    @Autowired
+    private VegetableServiceInterface vegetableService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private int farmsCreated;
+
+    @Test
+    void getAllFarmsUsesConstantQueryCount() {
+        addFarms(5);
+        long fewFarms = statementsFor(5);
+
+        addFarms(45);
+        long manyFarms = statementsFor(50);
+
+        assertThat(fewFarms).isEqualTo(3);
+        assertThat(manyFarms).isEqualTo(fewFarms);
+    }
+
+    private long statementsFor(int expectedFarms) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        // запросы не должны обслуживаться кэшем, иначе счётчик покажет ноль независимо от числа ферм
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        List<FarmInventoryView> farms = farmService.getAllFarms();
+
+        assertThat(farms).hasSize(expectedFarms);
+        assertThat(farms).allSatisfy(farm -> {
+            assertThat(farm.getFruits()).hasSize(PRODUCE_PER_FARM);
+            assertThat(farm.getVegetables()).hasSize(PRODUCE_PER_FARM);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addFarms(int count) {
+        List<ProduceBatchItem> produce = new ArrayList<>();
+        for (int i = 0; i < count; i++, farmsCreated++) {
+            Long farmId = farmService.createFarm(new Farm("Count Farm " + farmsCreated, "Region " + i)).getId();
+            for (int j = 0; j < PRODUCE_PER_FARM; j++) {
+                produce.add(new ProduceBatchItem("Item " + j, "Green", 50.0 + j, farmId));
+            }
+        }
+        fruitService.createFruits(produce);
+        vegetableService.createVegetables(produce);
+    }
+}